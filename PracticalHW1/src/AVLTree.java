@@ -1,4 +1,8 @@
 
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+
 /**
  * @author pinto - 322522111
  * @author rashtiyarden - 315384578
@@ -8,10 +12,35 @@
  * distinct integer keys and info
  */
 
-public class AVLTree {
+public class AVLTree implements Iterable<AVLTree.IAVLNode> {
 
     protected IAVLNode root, min, max;
     protected int size;
+    protected final boolean orderStatistics; // true if the nodes are RankTreeNodes which keep the size of their subtree
+
+    /**
+     * <p>
+     * makes a new empty tree, without order statistics.
+     * </p>
+     * Time Complexity: O(1)
+     */
+    public AVLTree() {
+        this(false);
+    }
+
+    /**
+     * <p>
+     * makes a new empty tree. In order statistics mode all nodes are {@link RankTreeNode}s, and insert, delete and the
+     * rotations keep the size of every subtree, which gives {@link #rank(int)}, {@link #select(int)} and
+     * {@link #countInRange(int, int)} in O(log(n)). The rebalancing then goes up to the root on every insert and delete.
+     * </p>
+     * Time Complexity: O(1)
+     *
+     * @param orderStatistics true to keep the sizes of the subtrees
+     */
+    public AVLTree(boolean orderStatistics) {
+        this.orderStatistics = orderStatistics;
+    }
 
     /**
      * public boolean empty()
@@ -95,75 +124,400 @@ public class AVLTree {
      * <p>
      * Returns a sorted array which contains all keys in the tree,
      * or an empty array if the tree is empty.
+     * The tree is walked in-order with {@link #successor(IAVLNode)}, without recursion.
      * <p>
      * Time Complexity: O(n)
      */
     public int[] keysToArray() {
         int[] arr = new int[size];
-        InOrderKeyToArrayRec(root, arr, 0);
+        int i = 0;
+        for (IAVLNode node = first(); node != null; node = successor(node))
+            arr[i++] = node.getKey();
         return arr;
     }
 
-    /**
-     * <p>
-     * A recursive method that does an in-order tree run and adds the key of the current node into arr[i]
-     * Used in {@link #keysToArray()}
-     * </p>
-     * Time Complexity: O(n)
-     *
-     * @param node the current node of the recursive function
-     * @param arr  the array of keys
-     * @param i    the current index in the array
-     *
-     * @return the amount progressed
-     */
-    protected int InOrderKeyToArrayRec(IAVLNode node, int[] arr, int i) {
-        if (node != null) {
-            int j = InOrderKeyToArrayRec(node.getLeft(), arr, i);
-            arr[i + j] = node.getKey();
-            int k = InOrderKeyToArrayRec(node.getRight(), arr, i + j + 1);
-            return j + k + 1;
-        }
-        return 0;
-    }
-
     /**
      * public String[] infoToArray()
      * <p>
      * Returns an array which contains all info in the tree,
      * sorted by their respective keys,
      * or an empty array if the tree is empty.
+     * The tree is walked in-order with {@link #successor(IAVLNode)}, without recursion.
      * <p>
      * Time Complexity: O(n)
      */
     public String[] infoToArray() {
         String[] arr = new String[size];
-        InOrderInfoToArrayRec(root, arr, 0);
+        int i = 0;
+        for (IAVLNode node = first(); node != null; node = successor(node))
+            arr[i++] = node.getValue();
         return arr;
     }
 
+    /**
+     * public int toArrays(int[] keys, String[] infos)
+     * <p>
+     * Fills keys and infos with the keys and info of the tree, sorted by key, in a single in-order walk.
+     * The arrays may be longer than the tree, the cells after the first n are not changed.
+     * returns the number of items written, or -1 (without writing) if one of the arrays is shorter than the tree.
+     * <p>
+     * Time Complexity: O(n)
+     */
+    public int toArrays(int[] keys, String[] infos) {
+        if (keys.length < size || infos.length < size)
+            return -1;
+        int i = 0;
+        for (IAVLNode node = first(); node != null; node = successor(node)) {
+            keys[i] = node.getKey();
+            infos[i] = node.getValue();
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * public int buildFromSorted(int[] keys, String[] values)
+     * <p>
+     * Replaces the content of the tree by the items (keys[j], values[j]), building a perfectly balanced tree
+     * directly instead of inserting the items one by one.
+     * returns -1 (and leaves the tree unchanged) if the arrays have different lengths or keys is not strictly
+     * increasing, otherwise returns 0.
+     * <p>
+     * Time Complexity: O(n)
+     */
+    public int buildFromSorted(int[] keys, String[] values) {
+        if (keys.length != values.length)
+            return -1;
+        for (int j = 1; j < keys.length; j++)
+            if (keys[j - 1] >= keys[j]) // unsorted or duplicate keys
+                return -1;
+        build(keys, values);
+        return 0;
+    }
+
     /**
      * <p>
-     * Simmilarly to {@link #InOrderKeyToArrayRec(IAVLNode, int[], int)}it is a recursive method that does an in-order
-     * tree run and adds the value of the current node into arr[i]
-     * Used in {@link #infoToArray()} ()}
+     * Replaces the content of the tree by a perfectly balanced tree of the items (keys[j], values[j]), in the order of
+     * the arrays, using {@link #buildRec(int[], String[], int, int, IAVLNode)}. Sets the size, min and max of the tree.
      * </p>
      * Time Complexity: O(n)
+     */
+    protected void build(int[] keys, String[] values) {
+        setContent(buildRec(keys, values, 0, keys.length - 1, null), keys.length);
+    }
+
+    /**
+     * <p>
+     * Makes newRoot the root of the tree, sets the size of the tree to newSize, and finds min and max.
+     * </p>
+     * Time Complexity: O(log(n))
+     */
+    protected void setContent(IAVLNode newRoot, int newSize) {
+        root = newRoot;
+        size = newSize;
+        min = root;
+        max = root;
+        if (root != null) {
+            root.setParent(null);
+            while (min.getLeft() != null)
+                min = min.getLeft();
+            while (max.getRight() != null)
+                max = max.getRight();
+        }
+    }
+
+    /**
+     * <p>
+     * A recursive method that builds a perfectly balanced subtree of the items lo..hi of the arrays:
+     * the middle item is the root, and the items before and after it are its left and right subtrees.
+     * The parameters of every node are set with {@link #updateNode(IAVLNode)} after both of its subtrees are built.
+     * </p>
+     * Time Complexity: O(hi - lo)
+     *
+     * @param parent the parent of the subtree's root
      *
-     * @param node the current node of the recursive function
-     * @param arr  the array of values
-     * @param i    the current index in the array
+     * @return the root of the subtree, or null if lo > hi
+     */
+    private IAVLNode buildRec(int[] keys, String[] values, int lo, int hi, IAVLNode parent) {
+        if (lo > hi)
+            return null;
+        int mid = (lo + hi) >>> 1;
+        IAVLNode node = createNode(keys[mid], values[mid]);
+        node.setParent(parent);
+        node.setLeft(buildRec(keys, values, lo, mid - 1, node));
+        node.setRight(buildRec(keys, values, mid + 1, hi, node));
+        updateNode(node);
+        return node;
+    }
+
+    /**
+     * <p>
+     * Creates a node of the type this tree is made of: a {@link RankTreeNode} in order statistics mode, otherwise an
+     * {@link AVLNode}.
+     * </p>
+     * Time Complexity: O(1)
+     */
+    protected IAVLNode createNode(int k, String s) {
+        if (orderStatistics)
+            return new RankTreeNode(k, s);
+        return new AVLNode(k, s);
+    }
+
+    /**
+     * <p>
+     * Updates the parameters of a node from those of its children, using {@link #updateSizeAndHeight(IAVLNode)} in
+     * order statistics mode and {@link #updateHeight(IAVLNode)} otherwise.
+     * </p>
+     * Time Complexity: O(1)
      *
-     * @return the amount progressed
+     * @return true if the height of the node changed, always true in order statistics mode
+     */
+    protected boolean updateNode(IAVLNode node) {
+        if (orderStatistics)
+            return updateSizeAndHeight(node);
+        return updateHeight(node);
+    }
+
+    /**
+     * public IAVLNode selectNode(int k)
+     * <p>
+     * Finds the node at rank k (the first node in the in-order has rank 1) using the algorithm learnt in class,
+     * in a loop down from the root: a node's rank in its subtree is its left child's size + 1, go left if k is smaller,
+     * and go right looking for rank k - rank if it is larger.
+     * returns null if k < 1, k > size, or the tree is not in order statistics mode.
+     * <p>
+     * Time Complexity: O(log(n))
      */
-    private int InOrderInfoToArrayRec(IAVLNode node, String[] arr, int i) {
-        if (node != null) {
-            int j = InOrderInfoToArrayRec(node.getLeft(), arr, i);
-            arr[i + j] = node.getValue();
-            int k = InOrderInfoToArrayRec(node.getRight(), arr, i + j + 1);
-            return j + k + 1;
+    public IAVLNode selectNode(int k) {
+        if (!orderStatistics || k > size || k < 1)
+            return null;
+        IAVLNode node = root;
+        while (true) {
+            int rank = subtreeSize(node.getLeft()) + 1;
+            if (k == rank)
+                return node;
+            else if (k < rank)
+                node = node.getLeft();
+            else {
+                k -= rank;
+                node = node.getRight();
+            }
         }
-        return 0;
+    }
+
+    /**
+     * public String select(int r)
+     * <p>
+     * returns the info of the item with the r-th smallest key in the tree, using {@link #selectNode(int)}.
+     * returns null if r < 1, r > size, or the tree is not in order statistics mode.
+     * <p>
+     * Time Complexity: O(log(n))
+     */
+    public String select(int r) {
+        IAVLNode node = selectNode(r);
+        if (node == null)
+            return null;
+        return node.getValue();
+    }
+
+    /**
+     * public int rank(int k)
+     * <p>
+     * returns the number of keys in the tree which are smaller than or equal to k, which is the rank of k if it is in
+     * the tree. returns -1 if the tree is not in order statistics mode.
+     * <p>
+     * Time Complexity: O(log(n))
+     */
+    public int rank(int k) {
+        if (!orderStatistics)
+            return -1;
+        return countBelow(k, true);
+    }
+
+    /**
+     * public int countInRange(int a, int b)
+     * <p>
+     * returns the number of keys in the tree with a &lt;= key &lt;= b, or 0 if a &gt; b.
+     * returns -1 if the tree is not in order statistics mode.
+     * <p>
+     * Time Complexity: O(log(n))
+     */
+    public int countInRange(int a, int b) {
+        if (!orderStatistics)
+            return -1;
+        if (a > b)
+            return 0;
+        return countBelow(b, true) - countBelow(a, false);
+    }
+
+    /**
+     * <p>
+     * Counts the keys smaller than k (or equal to k, if inclusive) on a single path down from the root: every time
+     * the path goes right, the node and its left subtree are counted.
+     * </p>
+     * Time Complexity: O(log(n)) in order statistics mode
+     */
+    private int countBelow(int k, boolean inclusive) {
+        int count = 0;
+        IAVLNode node = root;
+        while (node != null) {
+            if (k < node.getKey() || (k == node.getKey() && !inclusive))
+                node = node.getLeft();
+            else {
+                count += subtreeSize(node.getLeft()) + 1;
+                if (k == node.getKey())
+                    break;
+                node = node.getRight();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * public IAVLNode floorNode(int k)
+     * <p>
+     * returns the node with the largest key which is smaller than or equal to k,
+     * or null if there is no such node
+     * <p>
+     * Time Complexity: O(log(n))
+     */
+    public IAVLNode floorNode(int k) {
+        IAVLNode node = root, floor = null;
+        while (node != null) {
+            if (k == node.getKey())
+                return node;
+            else if (k < node.getKey())
+                node = node.getLeft();
+            else {
+                floor = node;
+                node = node.getRight();
+            }
+        }
+        return floor;
+    }
+
+    /**
+     * public IAVLNode ceilingNode(int k)
+     * <p>
+     * returns the node with the smallest key which is larger than or equal to k,
+     * or null if there is no such node
+     * <p>
+     * Time Complexity: O(log(n))
+     */
+    public IAVLNode ceilingNode(int k) {
+        IAVLNode node = root, ceiling = null;
+        while (node != null) {
+            if (k == node.getKey())
+                return node;
+            else if (k < node.getKey()) {
+                ceiling = node;
+                node = node.getLeft();
+            } else
+                node = node.getRight();
+        }
+        return ceiling;
+    }
+
+    /**
+     * public IAVLNode successor(IAVLNode node)
+     * <p>
+     * returns the node after node in the in-order of the tree, or null if node is the last one.
+     * Goes down to the leftmost node of the right subtree, or otherwise up the parent pointers until coming from a
+     * left child.
+     * <p>
+     * Time Complexity: O(log(n)), O(1) amortized over a walk of the whole tree
+     */
+    public IAVLNode successor(IAVLNode node) {
+        if (node.getRight() != null) {
+            node = node.getRight();
+            while (node.getLeft() != null)
+                node = node.getLeft();
+            return node;
+        }
+        IAVLNode parent = node.getParent();
+        while (parent != null && parent.getRight() == node) {
+            node = parent;
+            parent = parent.getParent();
+        }
+        return parent;
+    }
+
+    /**
+     * public IAVLNode predecessor(IAVLNode node)
+     * <p>
+     * returns the node before node in the in-order of the tree, or null if node is the first one.
+     * Symmetric to {@link #successor(IAVLNode)}.
+     * <p>
+     * Time Complexity: O(log(n)), O(1) amortized over a walk of the whole tree
+     */
+    public IAVLNode predecessor(IAVLNode node) {
+        if (node.getLeft() != null) {
+            node = node.getLeft();
+            while (node.getRight() != null)
+                node = node.getRight();
+            return node;
+        }
+        IAVLNode parent = node.getParent();
+        while (parent != null && parent.getLeft() == node) {
+            node = parent;
+            parent = parent.getParent();
+        }
+        return parent;
+    }
+
+    /**
+     * public Iterator&lt;IAVLNode&gt; iterator()
+     * <p>
+     * returns an iterator over the nodes of the tree in increasing order of keys.
+     * The nodes are visited lazily using {@link #successor(IAVLNode)}, nothing is allocated after the iterator itself.
+     * The tree must not be changed while it is iterated.
+     * <p>
+     * Time Complexity: O(1), and O(n) for the whole iteration
+     */
+    public Iterator<IAVLNode> iterator() {
+        return new NodeIterator(first(), false, Integer.MAX_VALUE);
+    }
+
+    /**
+     * public Iterator&lt;IAVLNode&gt; descendingIterator()
+     * <p>
+     * returns an iterator over the nodes of the tree in decreasing order of keys, see {@link #iterator()}.
+     * <p>
+     * Time Complexity: O(1), and O(n) for the whole iteration
+     */
+    public Iterator<IAVLNode> descendingIterator() {
+        return new NodeIterator(last(), true, Integer.MIN_VALUE);
+    }
+
+    /**
+     * public Iterator&lt;IAVLNode&gt; range(int lo, int hi)
+     * <p>
+     * returns an iterator over the nodes with lo &lt;= key &lt;= hi in increasing order of keys, see {@link #iterator()}.
+     * <p>
+     * Time Complexity: O(log(n)), and O(log(n) + k) for the whole iteration over k nodes
+     */
+    public Iterator<IAVLNode> range(int lo, int hi) {
+        return new NodeIterator(lo <= hi ? ceilingNode(lo) : null, false, hi);
+    }
+
+    /**
+     * @return the first node of the in-order of the tree, or null if the tree is empty
+     */
+    private IAVLNode first() {
+        IAVLNode node = root;
+        while (node != null && node.getLeft() != null)
+            node = node.getLeft();
+        return node;
+    }
+
+    /**
+     * @return the last node of the in-order of the tree, or null if the tree is empty
+     */
+    private IAVLNode last() {
+        IAVLNode node = root;
+        while (node != null && node.getRight() != null)
+            node = node.getRight();
+        return node;
     }
 
     /**
@@ -206,12 +560,12 @@ public class AVLTree {
      * Time Complexity: O(log(n))
      */
     public int insert(int k, String i) {
-        IAVLNode nodeToAdd = new AVLNode(k, i);
+        IAVLNode nodeToAdd = createNode(k, i);
         boolean inserted = baseInsert(nodeToAdd);
         if (!inserted)
             return -1;
         size++;
-        return fixTreeInsert(nodeToAdd, this::updateHeight);
+        return fixTreeInsert(nodeToAdd, this::updateNode);
 
     }
 
@@ -264,12 +618,6 @@ public class AVLTree {
      */
     private boolean baseInsert(IAVLNode nodeToAdd) { // Support function
 
-        //updating max and min
-        if (max == null || max.getKey() < nodeToAdd.getKey())
-            max = nodeToAdd;
-        if (min == null || min.getKey() > nodeToAdd.getKey())
-            min = nodeToAdd;
-
         // Inserting the node
         IAVLNode backNode = null, frontNode = root;
         while (frontNode != null) {
@@ -281,6 +629,24 @@ public class AVLTree {
             else
                 frontNode = frontNode.getRight();
         }
+        linkLeaf(backNode, nodeToAdd);
+        return true;
+    }
+
+    /**
+     * <p>
+     * Hangs nodeToAdd as a child of backNode, the node where the search for its key ended (or makes it the root if
+     * backNode is null), and updates max and min. Used in {@link #baseInsert(IAVLNode)} and {@link #insertAll(int[], String[])}.
+     * </p>
+     * Time Complexity: O(1)
+     */
+    private void linkLeaf(IAVLNode backNode, IAVLNode nodeToAdd) {
+        //updating max and min
+        if (max == null || max.getKey() < nodeToAdd.getKey())
+            max = nodeToAdd;
+        if (min == null || min.getKey() > nodeToAdd.getKey())
+            min = nodeToAdd;
+
         nodeToAdd.setParent(backNode);
         if (backNode == null)
             root = nodeToAdd;
@@ -288,9 +654,6 @@ public class AVLTree {
             backNode.setLeft(nodeToAdd);
         else
             backNode.setRight(nodeToAdd);
-
-
-        return true;
     }
 
     /**
@@ -321,26 +684,56 @@ public class AVLTree {
 
     /**
      * <p>
-     * computes the BF value of the {@link AVLNode} using the following formula:
-     * BF = |leftHeight - rightHeight| where leftHeight is the height of the left child, and right is the height of the right child
+     * A method that updates the size and height of a node:
+     * Size = left.size + right.size + 1 (if a child is null, it's size is 0)
+     * Height = {@link #updateHeight(IAVLNode)}
+     * <p>
+     * This function is used as the {@link updateNodeInterface#update(IAVLNode)} function in the functional interface for {@link RankTreeList}
+     * and for an {@link AVLTree} in order statistics mode
      * </p>
      * Time Complexity: O(1)
      *
-     * @param node the node which BF is being calculated
+     * @param node the node who's height and size needs to be updated. is an instance of {@link RankTreeNode}
      *
-     * @return the BF
+     * @return always true, as we want to update the size on the entire path
      */
-    protected int computeBF(IAVLNode node) {
-        int leftHeight = -1, rightHeight = -1;
+    protected boolean updateSizeAndHeight(IAVLNode node) {
+        // update size
+        int leftSize = 0, rightSize = 0;
+        RankTreeNode leftNode = (RankTreeNode) node.getLeft();
+        RankTreeNode rightNode = (RankTreeNode) node.getRight();
         if (node.getLeft() != null)
-            leftHeight = node.getLeft().getHeight();
+            leftSize = leftNode.getSize();
         if (node.getRight() != null)
-            rightHeight = node.getRight().getHeight();
-
-        return leftHeight - rightHeight;
-
-    }
-
+            rightSize = rightNode.getSize();
+        ((RankTreeNode) node).setSize(leftSize + rightSize + 1);
+        // update height and return if changed the height
+        updateHeight(node);
+        return true;
+    }
+
+    /**
+     * <p>
+     * computes the BF value of the {@link AVLNode} using the following formula:
+     * BF = |leftHeight - rightHeight| where leftHeight is the height of the left child, and right is the height of the right child
+     * </p>
+     * Time Complexity: O(1)
+     *
+     * @param node the node which BF is being calculated
+     *
+     * @return the BF
+     */
+    protected int computeBF(IAVLNode node) {
+        int leftHeight = -1, rightHeight = -1;
+        if (node.getLeft() != null)
+            leftHeight = node.getLeft().getHeight();
+        if (node.getRight() != null)
+            rightHeight = node.getRight().getHeight();
+
+        return leftHeight - rightHeight;
+
+    }
+
     /**
      * <p>
      * A method which controls which rotation is done to the node according to it's BF, and its corresponding son's BF. {@link #computeBF(IAVLNode)}
@@ -510,7 +903,7 @@ public class AVLTree {
 
 
         size--;
-        return deleteNode(node, this::updateHeight);
+        return deleteNode(node, this::updateNode);
 
 
     }
@@ -627,6 +1020,392 @@ public class AVLTree {
         return counter;
     }
 
+    /**
+     * public int insertAll(int[] keys, String[] values)
+     * <p>
+     * inserts the items (keys[j], values[j]) to the tree. Keys which are already in the tree are skipped, and so are
+     * repeated keys of the batch after their first appearance.
+     * The batch is sorted first. A batch which is large compared to the tree is merged with the items of the tree
+     * and the tree is rebuilt with {@link #build(int[], String[])} (so the old nodes are replaced). A smaller batch
+     * is inserted in increasing order, and the search for every key starts from the node inserted before it
+     * ({@link #fingerSearch(IAVLNode, int)}) instead of from the root.
+     * returns the number of items inserted, or -1 if the arrays have different lengths.
+     * <p>
+     * Time Complexity: O(b*log(b) + min(n + b, b*log(n))), for a batch of b items
+     */
+    public int insertAll(int[] keys, String[] values) {
+        if (keys.length != values.length)
+            return -1;
+        int[] order = sortedOrder(keys);
+        if (batchRebuilds(order.length)) {
+            int[] treeKeys = new int[size];
+            String[] treeInfos = new String[size];
+            toArrays(treeKeys, treeInfos);
+            int[] mergedKeys = new int[size + order.length];
+            String[] mergedInfos = new String[size + order.length];
+            int i = 0, j = 0, n = 0;
+            while (i < treeKeys.length || j < order.length) {
+                if (j == order.length || (i < treeKeys.length && treeKeys[i] <= keys[order[j]])) {
+                    if (j < order.length && treeKeys[i] == keys[order[j]])
+                        j++; // the key is in the tree already
+                    mergedKeys[n] = treeKeys[i];
+                    mergedInfos[n++] = treeInfos[i++];
+                } else {
+                    if (n == 0 || mergedKeys[n - 1] != keys[order[j]]) { // skip repeated keys of the batch
+                        mergedKeys[n] = keys[order[j]];
+                        mergedInfos[n++] = values[order[j]];
+                    }
+                    j++;
+                }
+            }
+            int inserted = n - size;
+            build(java.util.Arrays.copyOf(mergedKeys, n), java.util.Arrays.copyOf(mergedInfos, n));
+            return inserted;
+        }
+        int inserted = 0;
+        IAVLNode finger = null;
+        for (int j : order) {
+            IAVLNode backNode = fingerSearch(finger, keys[j]);
+            if (backNode != null && backNode.getKey() == keys[j])
+                continue;
+            IAVLNode nodeToAdd = createNode(keys[j], values[j]);
+            linkLeaf(backNode, nodeToAdd);
+            size++;
+            fixTreeInsert(nodeToAdd, this::updateNode);
+            inserted++;
+            finger = nodeToAdd;
+        }
+        return inserted;
+    }
+
+    /**
+     * public int deleteAll(int[] keys)
+     * <p>
+     * deletes the items with the given keys from the tree, keys which are not in the tree are skipped.
+     * As in {@link #insertAll(int[], String[])}, the batch is sorted first, and a large batch rebuilds the tree without
+     * the deleted items, while a smaller one is deleted in increasing order with every search starting from the
+     * successor of the item deleted before it.
+     * returns the number of items deleted.
+     * <p>
+     * Time Complexity: O(b*log(b) + min(n + b, b*log(n))), for a batch of b keys
+     */
+    public int deleteAll(int[] keys) {
+        int[] order = sortedOrder(keys);
+        if (batchRebuilds(order.length)) {
+            int[] treeKeys = new int[size];
+            String[] treeInfos = new String[size];
+            toArrays(treeKeys, treeInfos);
+            int j = 0, n = 0;
+            for (int i = 0; i < treeKeys.length; i++) {
+                while (j < order.length && keys[order[j]] < treeKeys[i])
+                    j++;
+                if (j < order.length && keys[order[j]] == treeKeys[i])
+                    continue; // deleted
+                treeKeys[n] = treeKeys[i];
+                treeInfos[n++] = treeInfos[i];
+            }
+            int deleted = size - n;
+            build(java.util.Arrays.copyOf(treeKeys, n), java.util.Arrays.copyOf(treeInfos, n));
+            return deleted;
+        }
+        int deleted = 0;
+        IAVLNode finger = null;
+        for (int j : order) {
+            IAVLNode node = fingerSearch(finger, keys[j]);
+            if (node == null || node.getKey() != keys[j]) {
+                finger = node;
+                continue;
+            }
+            finger = successor(node); // deleteNode moves nodes but never drops another one, so it stays in the tree
+            delete(node);
+            deleted++;
+        }
+        return deleted;
+    }
+
+    /**
+     * <p>
+     * Deletes node from the tree, updating max, min and size, see {@link #delete(int)}.
+     * </p>
+     * Time Complexity: O(log(n))
+     */
+    private void delete(IAVLNode node) {
+        if (node == max)
+            max = predecessor(node);
+        if (node == min)
+            min = successor(node);
+        size--;
+        deleteNode(node, this::updateNode);
+    }
+
+    /**
+     * <p>
+     * Searches k starting from finger rather than from the root: goes up from finger to the first node whose key is
+     * larger than or equal to k (or to the root), and down from there as in {@link #searchNodeByKey(int)}.
+     * When finger is close to k in the in-order this costs much less than a search from the root.
+     * </p>
+     * Time Complexity: O(log(n)), O(log(d)) amortized over a sorted batch, where d is the distance from finger to k
+     *
+     * @param finger a node whose key is smaller than k, or null to start from the root
+     *
+     * @return the node with key k, or the last node on the search path if k is not in the tree (null if the tree is
+     * empty)
+     */
+    private IAVLNode fingerSearch(IAVLNode finger, int k) {
+        IAVLNode node = finger == null ? root : finger;
+        while (node != null && node.getKey() < k && node.getParent() != null)
+            node = node.getParent();
+        IAVLNode last = null;
+        while (node != null) {
+            if (k == node.getKey())
+                return node;
+            last = node;
+            node = k < node.getKey() ? node.getLeft() : node.getRight();
+        }
+        return last;
+    }
+
+    /**
+     * @return the indices of keys, sorted by key, where equal keys keep their order in the array
+     */
+    private static int[] sortedOrder(int[] keys) {
+        long[] packed = new long[keys.length];
+        for (int j = 0; j < keys.length; j++)
+            packed[j] = ((long) keys[j] << 32) | j; // sorting by the packed value sorts by key, then by index
+        java.util.Arrays.sort(packed);
+        int[] order = new int[keys.length];
+        for (int j = 0; j < keys.length; j++)
+            order[j] = (int) packed[j];
+        return order;
+    }
+
+    /**
+     * @return true if rebuilding the tree, O(n + b), is cheaper than b searches in it, O(b*log(n))
+     */
+    private boolean batchRebuilds(int b) {
+        int log = 32 - Integer.numberOfLeadingZeros(size + 1);
+        return (long) b * log >= size + b;
+    }
+
+    /**
+     * public int join(IAVLNode x, AVLTree t)
+     * <p>
+     * joins this tree with x and t, where either all keys of t are smaller than x.key and all keys of this tree are
+     * larger, or the other way around. this tree holds the joined tree afterwards, and t is left empty.
+     * In order statistics mode, both trees must be in that mode and x must be a {@link RankTreeNode}.
+     * returns the complexity of the operation: |tree.height - t.height| + 1
+     * <p>
+     * Time Complexity: O(|tree.height - t.height| + 1)
+     */
+    public int join(IAVLNode x, AVLTree t) {
+        int cost = Math.abs(getHeight(root) - getHeight(t.root)) + 1;
+        boolean thisSmaller = root != null ? root.getKey() < x.getKey() : t.root == null || t.root.getKey() > x.getKey();
+        AVLTree smaller = thisSmaller ? this : t, larger = thisSmaller ? t : this;
+        IAVLNode newMin = smaller.root == null ? x : smaller.min, newMax = larger.root == null ? x : larger.max;
+        int newSize = size + t.size + 1;
+        root = joinNodes(smaller.root, x, larger.root);
+        size = newSize;
+        min = newMin;
+        max = newMax;
+        if (t != this)
+            t.setContent(null, 0);
+        return cost;
+    }
+
+    /**
+     * public AVLTree[] split(int x)
+     * <p>
+     * splits the tree around the key x: returns an array of two trees, the first one holds the items with keys smaller
+     * than x and the second one the items with keys larger than x. The item with key x, if there is one, is in
+     * neither. this tree is left empty.
+     * The sizes of the two trees are read from the sizes kept in the nodes, so the tree must be in order statistics
+     * mode: returns null (and leaves the tree as it is) otherwise.
+     * <p>
+     * Time Complexity: O(log(n))
+     */
+    public AVLTree[] split(int x) {
+        if (!orderStatistics)
+            return null;
+        IAVLNode node = root, last = null;
+        while (node != null && node.getKey() != x) {
+            last = node;
+            node = x < node.getKey() ? node.getLeft() : node.getRight();
+        }
+        IAVLNode[] parts;
+        if (node != null)
+            parts = splitAround(node); // the item with key x is dropped
+        else if (last == null)
+            parts = new IAVLNode[2];
+        else { // x is not in the tree, the last node on the search path goes to its side of x
+            parts = splitAround(last);
+            if (last.getKey() < x)
+                parts[0] = joinNodes(parts[0], last, null);
+            else
+                parts[1] = joinNodes(null, last, parts[1]);
+        }
+        AVLTree[] trees = {new AVLTree(true), new AVLTree(true)};
+        for (int j = 0; j < 2; j++)
+            trees[j].setContent(parts[j], subtreeSize(parts[j]));
+        setContent(null, 0);
+        return trees;
+    }
+
+    /**
+     * <p>
+     * Joins the subtrees smaller and larger with the node x between them, using the algorithm learnt in class:
+     * x is hung on the spine of the higher subtree at the first node which is not higher than the other subtree,
+     * and the tree is re-balanced from there up to its root. All nodes of smaller come before x and all nodes of
+     * larger after it (by key in an {@link AVLTree}, by position in a {@link RankTreeList}).
+     * </p>
+     * Time Complexity: O(|smaller.height - larger.height| + 1)
+     *
+     * @param smaller the root of the subtree before x, or null
+     * @param x       the node to put between the subtrees, its old children and parent are ignored
+     * @param larger  the root of the subtree after x, or null
+     *
+     * @return the root of the joined tree
+     */
+    protected IAVLNode joinNodes(IAVLNode smaller, IAVLNode x, IAVLNode larger) {
+        int smallerHeight = getHeight(smaller), largerHeight = getHeight(larger);
+        IAVLNode parent = null, child;
+        if (smallerHeight > largerHeight + 1) { // go down the right spine of smaller
+            child = smaller;
+            while (getHeight(child) > largerHeight) {
+                parent = child;
+                child = child.getRight();
+            }
+            x.setLeft(child);
+            x.setRight(larger);
+        } else if (largerHeight > smallerHeight + 1) { // go down the left spine of larger
+            child = larger;
+            while (getHeight(child) > smallerHeight) {
+                parent = child;
+                child = child.getLeft();
+            }
+            x.setLeft(smaller);
+            x.setRight(child);
+        } else {
+            x.setLeft(smaller);
+            x.setRight(larger);
+        }
+        x.setParent(parent);
+        if (x.getLeft() != null)
+            x.getLeft().setParent(x);
+        if (x.getRight() != null)
+            x.getRight().setParent(x);
+        if (parent != null) {
+            if (smallerHeight > largerHeight)
+                parent.setRight(x);
+            else
+                parent.setLeft(x);
+        }
+        updateNode(x);
+        //Re-balances the tree from the parent of x to the root, every node on the way changed its height or size
+        IAVLNode node = parent;
+        while (node != null) {
+            updateNode(node);
+            int BF = computeBF(node);
+            if (Math.abs(BF) >= 2) {
+                doRotation(node, BF, this::updateNode);
+                node = node.getParent(); // the new root of the subtree, updated by the rotation
+            }
+            node = node.getParent();
+        }
+        IAVLNode newRoot = x;
+        while (newRoot.getParent() != null)
+            newRoot = newRoot.getParent();
+        return newRoot;
+    }
+
+    /**
+     * <p>
+     * Splits the tree around the node x, using the algorithm learnt in class: going up from x, every ancestor is
+     * joined with its other subtree into the tree of the nodes before x or the tree of the nodes after it.
+     * x is detached from both trees. The root, size, min and max of this tree are not updated.
+     * </p>
+     * Time Complexity: O(log(n)), as the costs of the joins add up to the height of the tree
+     *
+     * @return {the root of the nodes before x, the root of the nodes after x}, each may be null
+     */
+    protected IAVLNode[] splitAround(IAVLNode x) {
+        IAVLNode smaller = x.getLeft(), larger = x.getRight();
+        if (smaller != null)
+            smaller.setParent(null);
+        if (larger != null)
+            larger.setParent(null);
+        IAVLNode node = x, parent = x.getParent();
+        while (parent != null) {
+            IAVLNode nextParent = parent.getParent();
+            if (parent.getRight() == node) { // parent and its left subtree come before x
+                IAVLNode subtree = parent.getLeft();
+                if (subtree != null)
+                    subtree.setParent(null);
+                smaller = joinNodes(subtree, parent, smaller);
+            } else { // parent and its right subtree come after x
+                IAVLNode subtree = parent.getRight();
+                if (subtree != null)
+                    subtree.setParent(null);
+                larger = joinNodes(larger, parent, subtree);
+            }
+            node = parent;
+            parent = nextParent;
+        }
+        x.setLeft(null);
+        x.setRight(null);
+        x.setParent(null);
+        return new IAVLNode[]{smaller, larger};
+    }
+
+    /**
+     * <p>
+     * Returns the amount of nodes in the subtree of node: the size kept in a {@link RankTreeNode}, otherwise
+     * counted with an in-order run.
+     * </p>
+     * Time Complexity: O(1) for a {@link RankTreeNode}, otherwise O(size of the subtree)
+     */
+    protected int subtreeSize(IAVLNode node) {
+        if (node == null)
+            return 0;
+        if (node instanceof RankTreeNode)
+            return ((RankTreeNode) node).getSize();
+        return subtreeSize(node.getLeft()) + subtreeSize(node.getRight()) + 1;
+    }
+
+    /**
+     * @return the height of node, or -1 if node is null
+     */
+    protected static int getHeight(IAVLNode node) {
+        return node == null ? -1 : node.getHeight();
+    }
+
+    /**
+     * An iterator which walks the tree with {@link #successor(IAVLNode)} or {@link #predecessor(IAVLNode)} from a start
+     * node, and stops at the end of the tree or at the first node past bound.
+     */
+    private class NodeIterator implements Iterator<IAVLNode> {
+        private IAVLNode next;
+        private final boolean descending;
+        private final int bound; // the last key to return, inclusive
+
+        NodeIterator(IAVLNode first, boolean descending, int bound) {
+            this.descending = descending;
+            this.bound = bound;
+            next = first;
+        }
+
+        public boolean hasNext() {
+            return next != null && (descending ? next.getKey() >= bound : next.getKey() <= bound);
+        }
+
+        public IAVLNode next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            IAVLNode node = next;
+            next = descending ? predecessor(node) : successor(node);
+            return node;
+        }
+    }
+
     /**
      * public interface IAVLNode
      * ! Do not delete or modify this - otherwise all tests will fail !
@@ -763,6 +1542,16 @@ interface updateNodeInterface {
  */
 class RankTreeList extends AVLTree {
 
+    /**
+     * <p>
+     * makes a new empty list, an {@link AVLTree} in order statistics mode.
+     * </p>
+     * Time Complexity: O(1)
+     */
+    public RankTreeList() {
+        super(true);
+    }
+
     /**
      * <p>
      * Inserts an item into the tree using {@link #baseInsert(IAVLNode, int)}
@@ -791,7 +1580,7 @@ class RankTreeList extends AVLTree {
      * <p>
      * Inserts the nodeToAdd into the tree according to the parameter i:
      * if(i = sizeOfTree) -> max.right = node
-     * else we find node at rank(i+1) using {@link #select(int)}. if it doesn't have a left child, than make it node.
+     * else we find node at rank(i+1) using {@link #selectNode(int)}. if it doesn't have a left child, than make it node.
      * otherwise make its successors right child node.
      * </p>
      * Time Complexity: O(log(n))
@@ -816,7 +1605,7 @@ class RankTreeList extends AVLTree {
             nodeToAdd.setParent(runningNode);
             return true;
         } else {
-            IAVLNode successor = select(i + 1);
+            IAVLNode successor = selectNode(i + 1);
             if (successor.getLeft() == null) {
                 successor.setLeft(nodeToAdd);
                 nodeToAdd.setParent(successor);
@@ -833,64 +1622,51 @@ class RankTreeList extends AVLTree {
 
     /**
      * <p>
-     * A shell function used to call {@link #selectRec(IAVLNode, int)} if 1 <= k <= size
+     * A method which returns an {@link Item}  who's rank in the tree is {@code i + 1} using the method {@link #selectNode(int)}.
      * </p>
-     * Time Complexity: O(log(n))
+     * Time complexity: O(log(n))
      *
-     * @param k the rank that is being searched
+     * @param i the desired item in the {@link TreeList}
      *
-     * @return the node which's rank is k.
+     * @return a new {@link Item} which's key is the key of the node at rank i+1, and it's info is node's value.
      */
-    private IAVLNode select(int k) {
-        if (k > size || k < 1)
+    public Item retrieve(int i) {
+        IAVLNode node = selectNode(i + 1);
+        if (node == null)
             return null;
-        return selectRec(root, k);
+        return new Item(node.getKey(), node.getValue());
     }
 
     /**
+     * public int keyAt(int i)
+     * <p>
+     * returns the key of the item in the ith position, without allocating an {@link Item} like {@link #retrieve(int)}.
+     * returns -1 if i<0 or i>n-1 (so if -1 is a valid key, check i against {@link #size()} first).
      * <p>
-     * A recursive function which finds the node at rank k using the algorithm learnt in class.
-     * </p>
      * Time Complexity: O(log(n))
-     *
-     * @param node the current node on the path to the correct one
-     * @param k    the desired rank
-     *
-     * @return the node which's rank is k
      */
-    private IAVLNode selectRec(IAVLNode node, int k) {
-        int rank = 1;
-        if (node.getLeft() != null)
-            rank = ((RankTreeNode) node.getLeft()).getSize() + 1;
-        if (k == rank)
-            return node;
-        else if (k < rank)
-            return selectRec(node.getLeft(), k);
-        else
-            return selectRec(node.getRight(), k - rank);
+    public int keyAt(int i) {
+        IAVLNode node = selectNode(i + 1);
+        return node == null ? -1 : node.getKey();
     }
 
     /**
+     * public String infoAt(int i)
      * <p>
-     * A method which returns an {@link Item}  who's rank in the tree is {@code i + 1} using the method {@link #select(int)}.
-     * </p>
-     * Time complexity: O(log(n))
-     *
-     * @param i the desired item in the {@link TreeList}
-     *
-     * @return a new {@link Item} which's key is the key of the node at rank i+1, and it's info is node's value.
+     * returns the info of the item in the ith position, without allocating an {@link Item} like {@link #retrieve(int)}.
+     * returns null if i<0 or i>n-1.
+     * <p>
+     * Time Complexity: O(log(n))
      */
-    public Item retrieve(int i) {
-        IAVLNode node = select(i + 1);
-        if (node == null)
-            return null;
-        return new Item(node.getKey(), node.getValue());
+    public String infoAt(int i) {
+        IAVLNode node = selectNode(i + 1);
+        return node == null ? null : node.getValue();
     }
 
     /**
      * <p>
      * A method which deletes the node at rank i+1 using the method {@link #deleteNode(IAVLNode, updateNodeInterface)}.
-     * if finds the node using the method {@link #select(int)}.
+     * if finds the node using the method {@link #selectNode(int)}.
      * This method is used to implement the method {@link TreeList#delete(int)}
      * </p>
      * Time Complexity: O(log(n))
@@ -901,7 +1677,7 @@ class RankTreeList extends AVLTree {
      */
     @Override
     public int delete(int i) {
-        IAVLNode nodeToDelete = select(i + 1);
+        IAVLNode nodeToDelete = selectNode(i + 1);
         if (nodeToDelete == null)
             return -1;
         size--;
@@ -911,36 +1687,1313 @@ class RankTreeList extends AVLTree {
 
     /**
      * <p>
-     * A method that updates the size and height of a node:
-     * Size = left.size + right.size + 1 (if a child is null, it's size is 0)
-     * Height = {@link #updateHeight(IAVLNode)}
-     * <p>
-     * This function is used as the {@link updateNodeInterface#update(IAVLNode)} function in the functional interface for {@link RankTreeList}
+     * Replaces the list by the items (keys[j], values[j]), in the order of the arrays, building a perfectly balanced
+     * tree directly using {@link #build(int[], String[])}.
      * </p>
-     * Time Complexity: O(1)
+     * Time Complexity: O(n)
      *
-     * @param node the node who's height and size needs to be updated. is an instance of {@link RankTreeNode}
+     * @return -1 if the arrays have different lengths, otherwise 0
+     */
+    public int buildFromList(int[] keys, String[] values) {
+        if (keys.length != values.length)
+            return -1;
+        build(keys, values);
+        return 0;
+    }
+
+    /**
+     * <p>
+     * Joins the lists: this list, then x, then t. this list holds the joined list afterwards, and t is left empty.
+     * x must be a {@link RankTreeNode} which is in neither list.
+     * </p>
+     * Time Complexity: O(|tree.height - t.height| + 1)
      *
-     * @return always true, as we want to update the size on the entire path
+     * @return the complexity of the operation: |tree.height - t.height| + 1
      */
-    private boolean updateSizeAndHeight(IAVLNode node) {
-        // update size
-        int leftSize = 0, rightSize = 0;
-        RankTreeNode leftNode = (RankTreeNode) node.getLeft();
-        RankTreeNode rightNode = (RankTreeNode) node.getRight();
-        if (node.getLeft() != null)
-            leftSize = leftNode.getSize();
-        if (node.getRight() != null)
-            rightSize = rightNode.getSize();
-        ((RankTreeNode) node).setSize(leftSize + rightSize + 1);
-        // update height and return if changed the height
-        updateHeight(node);
-        return true;
+    @Override
+    public int join(IAVLNode x, AVLTree t) {
+        int cost = Math.abs(getHeight(root) - getHeight(t.root)) + 1;
+        int newSize = size + t.size + 1;
+        setContent(joinNodes(root, x, t.root), newSize);
+        if (t != this)
+            t.setContent(null, 0);
+        return cost;
     }
-}
 
+    /**
+     * <p>
+     * Appends the items of t to the end of this list, and leaves t empty. The first item of t is removed from t and
+     * used to {@link #join(IAVLNode, AVLTree)} the lists.
+     * </p>
+     * Time Complexity: O(log(n))
+     */
+    public void concat(RankTreeList t) {
+        if (t == this || t.size == 0)
+            return;
+        IAVLNode x = t.selectNode(1);
+        t.delete(0);
+        join(x, t);
+    }
 
+    /**
+     * <p>
+     * Inserts the items (keys[j], values[j]) to the list, in the order of the arrays, starting at position i.
+     * The batch is built into a balanced tree with {@link #buildFromList(int[], String[])}, and joined between the
+     * two parts of this list after {@link #split(int)}ting it at i.
+     * </p>
+     * Time Complexity: O(b + log(n)), for a batch of b items
+     *
+     * @return -1 if i<0, i>n or the arrays have different lengths, otherwise 0
+     */
+    public int insertAll(int i, int[] keys, String[] values) {
+        if (i < 0 || i > size || keys.length != values.length)
+            return -1;
+        RankTreeList batch = new RankTreeList();
+        batch.buildFromList(keys, values);
+        RankTreeList[] parts = split(i);
+        parts[0].concat(batch);
+        parts[0].concat(parts[1]);
+        setContent(parts[0].root, parts[0].size);
+        return 0;
+    }
 
+    /**
+     * <p>
+     * Deletes the items at positions i..j-1 from the list: the list is {@link #split(int)} at i and at j, and the
+     * first and last parts are joined back together.
+     * </p>
+     * Time Complexity: O(log(n))
+     *
+     * @return -1 if i<0, j>n or i>j, otherwise the number of items deleted
+     */
+    public int deleteRange(int i, int j) {
+        if (i < 0 || j > size || i > j)
+            return -1;
+        RankTreeList[] parts = split(i);
+        RankTreeList[] rest = parts[1].split(j - i);
+        parts[0].concat(rest[1]);
+        setContent(parts[0].root, parts[0].size);
+        return j - i;
+    }
 
+    /**
+     * <p>
+     * Splits the list at position i: returns an array of two lists, the first one holds the items at positions
+     * 0..i-1 and the second one the items at positions i..n-1. this list is left empty.
+     * The item at position i is split around with {@link #splitAround(IAVLNode)} and then joined back to the front
+     * of the second list.
+     * </p>
+     * Time Complexity: O(log(n))
+     *
+     * @return the two lists, or null if i < 0 or i > n
+     */
+    @Override
+    public RankTreeList[] split(int i) {
+        if (i < 0 || i > size)
+            return null;
+        RankTreeList[] lists = {new RankTreeList(), new RankTreeList()};
+        if (i == size)
+            lists[0].setContent(root, size);
+        else {
+            IAVLNode x = selectNode(i + 1);
+            IAVLNode[] parts = splitAround(x);
+            lists[0].setContent(parts[0], i);
+            lists[1].setContent(joinNodes(null, x, parts[1]), size - i);
+        }
+        setContent(null, 0);
+        return lists;
+    }
 
+    /**
+     * <p>
+     * Moves the items at positions i..n-1 of this list to the end of t, with {@link #split(int)} and
+     * {@link #concat(RankTreeList)}. this list keeps the items at positions 0..i-1.
+     * </p>
+     * Time Complexity: O(log(n) + log(|t|))
+     *
+     * @return -1 if i<0 or i>n, otherwise 0
+     */
+    public int moveTail(int i, RankTreeList t) {
+        RankTreeList[] lists = split(i);
+        if (lists == null)
+            return -1;
+        setContent(lists[0].root, lists[0].size);
+        t.concat(lists[1]);
+        return 0;
+    }
 
+    /**
+     * public ListCursor cursor(int i)
+     * <p>
+     * returns a {@link ListCursor} at the ith position, or null if i<0 or i>n.
+     * <p>
+     * Time Complexity: O(log(n))
+     */
+    public ListCursor cursor(int i) {
+        if (i < 0 || i > size)
+            return null;
+        return new ListCursor(selectNode(i + 1), i);
+    }
+
+    /**
+     * public class ListCursor
+     * <p>
+     * A position in the list, which reads the item there without allocating and moves to the next or previous
+     * position through the {@link #successor(IAVLNode)} and {@link #predecessor(IAVLNode)} links instead of a new
+     * {@link #selectNode(int)}, so walking k positions costs O(k + log(n)).
+     * The positions are 0..n, where position n is past the last item and has no item.
+     * <p>
+     * The cursor is also a finger: {@link #moveTo(int)} goes up from its node only until the subtree also holds the
+     * target position, and down from there, so a move costs the height of the lowest subtree holding both positions:
+     * O(log(d)) for a distance d when the two positions are under a low common ancestor, but up to O(log(n)) even for
+     * d = 1 when the move crosses a high one, such as the root. {@link #insert(int, String)}
+     * and {@link #delete()} change the list at the cursor without searching for the position.
+     * A cursor is valid until the list is changed other than through it.
+     * It is the implementation of {@link TreeList.Cursor}.
+     */
+    public class ListCursor implements TreeList.Cursor {
+        private IAVLNode node; // the node at position, null past the end
+        private int position;
+
+        private ListCursor(IAVLNode node, int position) {
+            this.node = node;
+            this.position = position;
+        }
+
+        /**
+         * @return the position of the cursor, 0..n
+         */
+        public int position() {
+            return position;
+        }
+
+        /**
+         * @return true if the cursor is at an item, false if it is past the end
+         */
+        public boolean hasItem() {
+            return node != null;
+        }
+
+        /**
+         * @return the key of the item at the cursor, or -1 if the cursor is past the end
+         */
+        public int getKey() {
+            return node == null ? -1 : node.getKey();
+        }
+
+        /**
+         * @return the info of the item at the cursor, or null if the cursor is past the end
+         */
+        public String getInfo() {
+            return node == null ? null : node.getValue();
+        }
+
+        /**
+         * <p>
+         * Moves the cursor to the next position.
+         * </p>
+         * Time Complexity: O(1) amortized over a walk of the list, O(log(n)) worst case
+         *
+         * @return false if the cursor was past the end (and stays there), true otherwise
+         */
+        public boolean next() {
+            if (node == null)
+                return false;
+            node = successor(node);
+            position++;
+            return true;
+        }
+
+        /**
+         * <p>
+         * Moves the cursor to the previous position.
+         * </p>
+         * Time Complexity: O(1) amortized over a walk of the list, O(log(n)) worst case
+         *
+         * @return false if the cursor was at position 0 (and stays there), true otherwise
+         */
+        public boolean previous() {
+            if (position == 0)
+                return false;
+            node = node == null ? selectNode(size) : predecessor(node);
+            position--;
+            return true;
+        }
+
+        /**
+         * <p>
+         * Moves the cursor to position j. Goes up the parent pointers, keeping the position of the node, until j is
+         * in the subtree of the node: a node at position p covers positions p - size(left)..p + size(right). Then goes
+         * down from that node like {@link #selectNode(int)}, with the positions shifted by the start of the subtree.
+         * From past the end the search starts at the root.
+         * </p>
+         * Time Complexity: O(h + 1), where h is the height of the lowest subtree holding both positions: O(log(d)) for a
+         * distance d = |j - position| when that subtree is small, O(log(n)) worst case (even for d = 1)
+         *
+         * @return -1 if j<0 or j>n, otherwise 0
+         */
+        public int moveTo(int j) {
+            if (j < 0 || j > size)
+                return -1;
+            if (j == size) {
+                node = null;
+                position = j;
+                return 0;
+            }
+            if (node == null) {
+                node = root;
+                position = subtreeSize(root.getLeft());
+            }
+            while (j < position - subtreeSize(node.getLeft()) || j > position + subtreeSize(node.getRight())) {
+                IAVLNode parent = node.getParent();
+                if (parent.getLeft() == node)
+                    position += subtreeSize(node.getRight()) + 1;
+                else
+                    position -= subtreeSize(node.getLeft()) + 1;
+                node = parent;
+            }
+            while (j != position) {
+                if (j < position) {
+                    node = node.getLeft();
+                    position -= subtreeSize(node.getRight()) + 1;
+                } else {
+                    node = node.getRight();
+                    position += subtreeSize(node.getLeft()) + 1;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * <p>
+         * Inserts an item with key k and info s at the position of the cursor, before the item that was there, and
+         * leaves the cursor on the new item. The new node is hung as the left child of the cursor's node, or as the
+         * right child of its predecessor, and the tree is fixed with {@link #fixTreeInsert(IAVLNode, updateNodeInterface)}.
+         * </p>
+         * Time Complexity: O(log(n)), for the sizes on the path to the root, without a search for the position
+         *
+         * @return 0
+         */
+        public int insert(int k, String s) {
+            IAVLNode nodeToAdd = createNode(k, s);
+            IAVLNode parent;
+            if (node == null)
+                parent = size == 0 ? null : selectNode(size); // past the end, after the last item
+            else if (node.getLeft() == null)
+                parent = node;
+            else
+                parent = predecessor(node);
+            if (parent == null)
+                root = nodeToAdd;
+            else if (parent == node)
+                parent.setLeft(nodeToAdd);
+            else
+                parent.setRight(nodeToAdd);
+            nodeToAdd.setParent(parent);
+            size++;
+            fixTreeInsert(nodeToAdd, RankTreeList.this::updateSizeAndHeight);
+            node = nodeToAdd;
+            return 0;
+        }
+
+        /**
+         * <p>
+         * Deletes the item at the cursor with {@link #deleteNode(IAVLNode, updateNodeInterface)} and moves the cursor
+         * to the item after it, which is now at the same position.
+         * </p>
+         * Time Complexity: O(log(n)), for the sizes on the path to the root, without a search for the position
+         *
+         * @return -1 if the cursor is past the end, otherwise 0
+         */
+        public int delete() {
+            if (node == null)
+                return -1;
+            IAVLNode next = successor(node);
+            size--;
+            deleteNode(node, RankTreeList.this::updateSizeAndHeight);
+            node = next;
+            return 0;
+        }
+    }
+
+}
+
+/**
+ * ArrayAVLTree
+ * <p>
+ * An AVL Tree with the same operations as {@link AVLTree}, which keeps its nodes in parallel arrays instead of
+ * {@link AVLTree.AVLNode} objects. A node is an index into the arrays, and the index {@link #NIL} stands for null:
+ * it is a virtual leaf with height -1 and size 0, so the rebalancing code never checks for missing children.
+ * <p>
+ * Every node also keeps the size of its subtree, like {@link AVLTree.RankTreeNode}, which gives {@link #select(int)}.
+ * Deleted nodes are linked into a free list through the left array and reused by the next inserts, and the arrays
+ * double when they are full.
+ */
+class ArrayAVLTree {
+
+    private static final int NIL = 0;
+
+    private int[] keys, left, right, parent, height, sizes;
+    private String[] values;
+    private int root = NIL, min = NIL, max = NIL;
+    private int size;
+    private int unused = 1; // the first index that was never given to a node
+    private int free = NIL; // the head of the free list
+
+    public ArrayAVLTree() {
+        this(16);
+    }
+
+    /**
+     * @param capacity the amount of nodes the arrays hold before they grow
+     */
+    public ArrayAVLTree(int capacity) {
+        capacity = Math.max(capacity, 1) + 1; // index 0 is NIL
+        keys = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        parent = new int[capacity];
+        height = new int[capacity];
+        sizes = new int[capacity];
+        values = new String[capacity];
+        height[NIL] = -1;
+    }
+
+    /**
+     * public boolean empty()
+     * <p>
+     * returns true if and only if the tree is empty
+     * <p>
+     * Time Complexity: O(1)
+     */
+    public boolean empty() {
+        return root == NIL;
+    }
+
+    /**
+     * public String search(int k)
+     * <p>
+     * returns the info of an item with key k if it exists in the tree
+     * otherwise, returns null
+     * <p>
+     * Time Complexity: O(log(n))
+     */
+    public String search(int k) {
+        return values[searchNodeByKey(k)]; // values[NIL] is always null
+    }
+
+    /**
+     * <p>
+     * returns the node with key k if it exists in the tree
+     * otherwise, returns {@link #NIL}
+     * <p>
+     * Time Complexity: O(log(n))
+     */
+    private int searchNodeByKey(int k) {
+        int node = root;
+        while (node != NIL && keys[node] != k)
+            node = k < keys[node] ? left[node] : right[node];
+        return node;
+    }
+
+    /**
+     * public String min()
+     * <p>
+     * Returns the info of the item with the smallest key in the tree,
+     * or null if the tree is empty
+     * <p>
+     * Time Complexity: O(1)
+     */
+    public String min() {
+        return values[min];
+    }
+
+    /**
+     * public String max()
+     * <p>
+     * Returns the info of the item with the largest key in the tree,
+     * or null if the tree is empty
+     * <p>
+     * Time Complexity: O(1)
+     */
+    public String max() {
+        return values[max];
+    }
+
+    /**
+     * public int size()
+     * <p>
+     * Returns the number of nodes in the tree.
+     * <p>
+     * Time Complexity: O(1)
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * public int[] keysToArray()
+     * <p>
+     * Returns a sorted array which contains all keys in the tree,
+     * or an empty array if the tree is empty.
+     * <p>
+     * Time Complexity: O(n)
+     */
+    public int[] keysToArray() {
+        int[] arr = new int[size];
+        int i = 0;
+        for (int node = min; node != NIL; node = successor(node))
+            arr[i++] = keys[node];
+        return arr;
+    }
+
+    /**
+     * public String[] infoToArray()
+     * <p>
+     * Returns an array which contains all info in the tree,
+     * sorted by their respective keys,
+     * or an empty array if the tree is empty.
+     * <p>
+     * Time Complexity: O(n)
+     */
+    public String[] infoToArray() {
+        String[] arr = new String[size];
+        int i = 0;
+        for (int node = min; node != NIL; node = successor(node))
+            arr[i++] = values[node];
+        return arr;
+    }
+
+    /**
+     * <p>
+     * Returns the info of the item with the r-th smallest key in the tree (the smallest key has rank 1),
+     * or null if r < 1 or r > size.
+     * </p>
+     * Time Complexity: O(log(n))
+     */
+    public String select(int r) {
+        if (r < 1 || r > size)
+            return null;
+        int node = root;
+        while (true) {
+            int rank = sizes[left[node]] + 1;
+            if (r == rank)
+                return values[node];
+            if (r < rank)
+                node = left[node];
+            else {
+                r -= rank;
+                node = right[node];
+            }
+        }
+    }
+
+    /**
+     * public int insert(int k, String i)
+     * <p>
+     * inserts an item with key k and info i to the AVL tree.
+     * the tree must remain valid (keep its invariants).
+     * returns the number of rebalancing operations, or 0 if no rebalancing operations were necessary.
+     * returns -1 if an item with key k already exists in the tree.
+     * <p>
+     * Time Complexity: O(log(n)) amortized, O(n) when the arrays grow
+     */
+    public int insert(int k, String i) {
+        int backNode = NIL, frontNode = root;
+        while (frontNode != NIL) {
+            if (keys[frontNode] == k)
+                return -1;
+            backNode = frontNode;
+            frontNode = k < keys[frontNode] ? left[frontNode] : right[frontNode];
+        }
+        int node = newNode(k, i);
+        parent[node] = backNode;
+        if (backNode == NIL)
+            root = node;
+        else if (k < keys[backNode])
+            left[backNode] = node;
+        else
+            right[backNode] = node;
+        //updating max and min
+        if (min == NIL || k < keys[min])
+            min = node;
+        if (max == NIL || k > keys[max])
+            max = node;
+        size++;
+        return rebalance(backNode);
+    }
+
+    /**
+     * public int delete(int k)
+     * <p>
+     * deletes an item with key k from the binary tree, if it is there;
+     * the tree must remain valid (keep its invariants).
+     * returns the number of rebalancing operations, or 0 if no rebalancing operations were needed.
+     * returns -1 if an item with key k was not found in the tree.
+     * <p>
+     * Time Complexity: O(log(n))
+     */
+    public int delete(int k) {
+        int node = searchNodeByKey(k);
+        if (node == NIL)
+            return -1;
+        if (left[node] != NIL && right[node] != NIL) {
+            // node has 2 children, move its successor's item into it and delete the successor instead.
+            // nodes are not visible outside the tree, so unlike AVLTree there is no need to relink them
+            int successor = right[node];
+            while (left[successor] != NIL)
+                successor = left[successor];
+            keys[node] = keys[successor];
+            values[node] = values[successor];
+            if (max == successor)
+                max = node;
+            node = successor;
+        }
+        // node has at most one child, which takes its place
+        int child = left[node] != NIL ? left[node] : right[node];
+        int nodeParent = parent[node];
+        if (child != NIL)
+            parent[child] = nodeParent;
+        replaceChild(nodeParent, node, child);
+        //updating max and min, a node with one child can only be min or max if the child is on the other side
+        if (node == min)
+            min = child != NIL ? leftmost(child) : nodeParent;
+        if (node == max)
+            max = child != NIL ? rightmost(child) : nodeParent;
+        freeNode(node);
+        size--;
+        return rebalance(nodeParent);
+    }
+
+    /**
+     * <p>
+     * Re-balances the tree from node up to the root, updating the height and size of every node on the way and
+     * rotating every BF criminal as learnt in class. Sizes change along the whole path, so the loop never stops early.
+     * </p>
+     * Time Complexity: O(log(n))
+     *
+     * @return the amount of rotations done
+     */
+    private int rebalance(int node) {
+        int rotations = 0;
+        while (node != NIL) {
+            update(node);
+            int BF = height[left[node]] - height[right[node]];
+            if (BF == 2) {
+                int child = left[node];
+                if (height[left[child]] < height[right[child]]) { // child.BF = -1, LR rotation
+                    rotateLeft(child);
+                    rotations++;
+                }
+                rotateRight(node);
+                rotations++;
+                node = parent[node]; // the new root of the subtree, already updated by the rotation
+            } else if (BF == -2) {
+                int child = right[node];
+                if (height[left[child]] > height[right[child]]) { // child.BF = 1, RL rotation
+                    rotateRight(child);
+                    rotations++;
+                }
+                rotateLeft(node);
+                rotations++;
+                node = parent[node];
+            }
+            node = parent[node];
+        }
+        return rotations;
+    }
+
+    /**
+     * <p>
+     * A left rotation around node, node's right child takes its place.
+     * </p>
+     * Time complexity: O(1)
+     */
+    private void rotateLeft(int node) {
+        int y = right[node];
+        right[node] = left[y];
+        if (left[y] != NIL)
+            parent[left[y]] = node;
+        parent[y] = parent[node];
+        replaceChild(parent[node], node, y);
+        left[y] = node;
+        parent[node] = y;
+        update(node);
+        update(y);
+    }
+
+    /**
+     * <p>
+     * A right rotation around node, node's left child takes its place.
+     * </p>
+     * Time complexity: O(1)
+     */
+    private void rotateRight(int node) {
+        int y = left[node];
+        left[node] = right[y];
+        if (right[y] != NIL)
+            parent[right[y]] = node;
+        parent[y] = parent[node];
+        replaceChild(parent[node], node, y);
+        right[y] = node;
+        parent[node] = y;
+        update(node);
+        update(y);
+    }
+
+    /**
+     * Makes newChild the child of nodeParent in place of oldChild, or the root if nodeParent is {@link #NIL}.
+     */
+    private void replaceChild(int nodeParent, int oldChild, int newChild) {
+        if (nodeParent == NIL)
+            root = newChild;
+        else if (left[nodeParent] == oldChild)
+            left[nodeParent] = newChild;
+        else
+            right[nodeParent] = newChild;
+    }
+
+    /**
+     * Sets the height and size of node from those of its children.
+     */
+    private void update(int node) {
+        height[node] = Math.max(height[left[node]], height[right[node]]) + 1;
+        sizes[node] = sizes[left[node]] + sizes[right[node]] + 1;
+    }
+
+    private int leftmost(int node) {
+        while (left[node] != NIL)
+            node = left[node];
+        return node;
+    }
+
+    private int rightmost(int node) {
+        while (right[node] != NIL)
+            node = right[node];
+        return node;
+    }
+
+    /**
+     * @return the node with the next key after node's, or {@link #NIL} if node holds the max. O(1) amortized over a
+     * full in-order walk.
+     */
+    private int successor(int node) {
+        if (right[node] != NIL)
+            return leftmost(right[node]);
+        while (parent[node] != NIL && right[parent[node]] == node)
+            node = parent[node];
+        return parent[node];
+    }
+
+    /**
+     * Takes a node from the free list, or the next unused index (growing the arrays if they are full), and sets it to a
+     * leaf with key k and info s.
+     */
+    private int newNode(int k, String s) {
+        int node;
+        if (free != NIL) {
+            node = free;
+            free = left[node];
+        } else {
+            if (unused == keys.length)
+                grow();
+            node = unused++;
+        }
+        keys[node] = k;
+        values[node] = s;
+        left[node] = right[node] = parent[node] = NIL;
+        height[node] = 0;
+        sizes[node] = 1;
+        return node;
+    }
+
+    /**
+     * Puts node at the head of the free list, dropping its info so it can be garbage collected.
+     */
+    private void freeNode(int node) {
+        values[node] = null;
+        left[node] = free;
+        free = node;
+    }
+
+    private void grow() {
+        int capacity = keys.length * 2;
+        keys = java.util.Arrays.copyOf(keys, capacity);
+        left = java.util.Arrays.copyOf(left, capacity);
+        right = java.util.Arrays.copyOf(right, capacity);
+        parent = java.util.Arrays.copyOf(parent, capacity);
+        height = java.util.Arrays.copyOf(height, capacity);
+        sizes = java.util.Arrays.copyOf(sizes, capacity);
+        values = java.util.Arrays.copyOf(values, capacity);
+    }
+}
+
+/**
+ * PersistentAVLTree
+ * <p>
+ * An immutable AVL Tree with distinct integer keys and info. insert and delete do not change the tree, they return a
+ * new version of it which shares every node off the changed path with the old version (path copying). Nodes have no
+ * parent pointers and are never changed after they are built, so any number of threads can read a version without
+ * locking while a writer builds the next ones, and versions that are no longer referenced are garbage collected.
+ * <p>
+ * All fields are final, so a version handed to another thread (for example through a volatile field) is seen fully built.
+ */
+class PersistentAVLTree {
+
+    private final Node root, min, max;
+    private final int size;
+
+    /**
+     * <p>
+     * makes a new empty tree.
+     * </p>
+     * Time Complexity: O(1)
+     */
+    public PersistentAVLTree() {
+        this(null, 0);
+    }
+
+    private PersistentAVLTree(Node root, int size) {
+        this.root = root;
+        this.size = size;
+        Node first = root, last = root;
+        if (root != null) {
+            while (first.left != null)
+                first = first.left;
+            while (last.right != null)
+                last = last.right;
+        }
+        min = first;
+        max = last;
+    }
+
+    /**
+     * public boolean empty()
+     * <p>
+     * returns true if and only if the tree is empty
+     * <p>
+     * Time Complexity: O(1)
+     */
+    public boolean empty() {
+        return root == null;
+    }
+
+    /**
+     * public String search(int k)
+     * <p>
+     * returns the info of an item with key k if it exists in the tree
+     * otherwise, returns null
+     * <p>
+     * Time Complexity: O(log(n))
+     */
+    public String search(int k) {
+        Node node = searchNode(k);
+        if (node == null)
+            return null;
+        return node.value;
+    }
+
+    private Node searchNode(int k) {
+        Node node = root;
+        while (node != null && node.key != k)
+            node = k < node.key ? node.left : node.right;
+        return node;
+    }
+
+    /**
+     * public String min()
+     * <p>
+     * Returns the info of the item with the smallest key in the tree,
+     * or null if the tree is empty
+     * <p>
+     * Time Complexity: O(1)
+     */
+    public String min() {
+        if (min == null)
+            return null;
+        return min.value;
+    }
+
+    /**
+     * public String max()
+     * <p>
+     * Returns the info of the item with the largest key in the tree,
+     * or null if the tree is empty
+     * <p>
+     * Time Complexity: O(1)
+     */
+    public String max() {
+        if (max == null)
+            return null;
+        return max.value;
+    }
+
+    /**
+     * public int size()
+     * <p>
+     * Returns the number of nodes in the tree.
+     * <p>
+     * Time Complexity: O(1)
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * public PersistentAVLTree insert(int k, String i)
+     * <p>
+     * returns a new version of the tree with an item with key k and info i added, copying the nodes on the path to
+     * the new leaf and rebalancing the copies. This version is not changed.
+     * returns this tree if an item with key k already exists in it.
+     * <p>
+     * Time Complexity: O(log(n))
+     */
+    public PersistentAVLTree insert(int k, String i) {
+        if (searchNode(k) != null)
+            return this;
+        return new PersistentAVLTree(insertRec(root, k, i), size + 1);
+    }
+
+    /**
+     * public PersistentAVLTree delete(int k)
+     * <p>
+     * returns a new version of the tree without the item with key k, copying the nodes on the path to it (and to its
+     * successor, if the item has 2 children) and rebalancing the copies. This version is not changed.
+     * returns this tree if there is no item with key k in it.
+     * <p>
+     * Time Complexity: O(log(n))
+     */
+    public PersistentAVLTree delete(int k) {
+        if (searchNode(k) == null)
+            return this;
+        return new PersistentAVLTree(deleteRec(root, k), size - 1);
+    }
+
+    /**
+     * public int[] keysToArray()
+     * <p>
+     * Returns a sorted array which contains all keys in the tree,
+     * or an empty array if the tree is empty.
+     * <p>
+     * Time Complexity: O(n)
+     */
+    public int[] keysToArray() {
+        int[] arr = new int[size];
+        int i = 0;
+        Node[] stack = newStack();
+        int top = 0;
+        Node node = root;
+        while (node != null || top > 0) { // an in-order run with an explicit stack, as the nodes have no parent pointers
+            while (node != null) {
+                stack[top++] = node;
+                node = node.left;
+            }
+            node = stack[--top];
+            arr[i++] = node.key;
+            node = node.right;
+        }
+        return arr;
+    }
+
+    /**
+     * public String[] infoToArray()
+     * <p>
+     * Returns an array which contains all info in the tree,
+     * sorted by their respective keys,
+     * or an empty array if the tree is empty.
+     * <p>
+     * Time Complexity: O(n)
+     */
+    public String[] infoToArray() {
+        String[] arr = new String[size];
+        int i = 0;
+        Node[] stack = newStack();
+        int top = 0;
+        Node node = root;
+        while (node != null || top > 0) {
+            while (node != null) {
+                stack[top++] = node;
+                node = node.left;
+            }
+            node = stack[--top];
+            arr[i++] = node.value;
+            node = node.right;
+        }
+        return arr;
+    }
+
+    /**
+     * @return a stack large enough for the nodes of a path from the root to a leaf
+     */
+    private Node[] newStack() {
+        return new Node[height(root) + 1];
+    }
+
+    /**
+     * <p>
+     * A recursive method that returns a copy of the subtree of node with the item (k, s) added as a leaf.
+     * Every node on the path is rebuilt with {@link #balance(int, String, Node, Node)}.
+     * </p>
+     * Time Complexity: O(log(n))
+     */
+    private static Node insertRec(Node node, int k, String s) {
+        if (node == null)
+            return new Node(k, s, null, null);
+        if (k < node.key)
+            return balance(node.key, node.value, insertRec(node.left, k, s), node.right);
+        return balance(node.key, node.value, node.left, insertRec(node.right, k, s));
+    }
+
+    /**
+     * <p>
+     * A recursive method that returns a copy of the subtree of node without the item with key k, which must be in it.
+     * A node with 2 children is replaced by a copy of its successor, which is removed from the right subtree.
+     * </p>
+     * Time Complexity: O(log(n))
+     */
+    private static Node deleteRec(Node node, int k) {
+        if (k < node.key)
+            return balance(node.key, node.value, deleteRec(node.left, k), node.right);
+        if (k > node.key)
+            return balance(node.key, node.value, node.left, deleteRec(node.right, k));
+        if (node.left == null)
+            return node.right;
+        if (node.right == null)
+            return node.left;
+        Node successor = node.right;
+        while (successor.left != null)
+            successor = successor.left;
+        return balance(successor.key, successor.value, node.left, deleteMin(node.right));
+    }
+
+    /**
+     * @return a copy of the subtree of node without its smallest item
+     */
+    private static Node deleteMin(Node node) {
+        if (node.left == null)
+            return node.right;
+        return balance(node.key, node.value, deleteMin(node.left), node.right);
+    }
+
+    /**
+     * <p>
+     * Builds a node with the item (key, value) and the given subtrees, whose heights differ by at most 2, and rotates
+     * the new nodes if it is a BF criminal, as learnt in class:
+     * if BF = 2 -> if(left.BF = -1) rotate left.left first, then rotate right
+     * if BF = -2 -> if(right.BF = 1) rotate right.right first, then rotate left
+     * The rotations build new nodes instead of changing the subtrees, which may be shared with older versions.
+     * </p>
+     * Time Complexity: O(1)
+     *
+     * @return the root of the balanced subtree
+     */
+    private static Node balance(int key, String value, Node left, Node right) {
+        int BF = height(left) - height(right);
+        if (BF == 2) {
+            if (height(left.left) < height(left.right))
+                left = rotateLeft(left);
+            return new Node(left.key, left.value, left.left, new Node(key, value, left.right, right));
+        }
+        if (BF == -2) {
+            if (height(right.left) > height(right.right))
+                right = rotateRight(right);
+            return new Node(right.key, right.value, new Node(key, value, left, right.left), right.right);
+        }
+        return new Node(key, value, left, right);
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node y = node.right;
+        return new Node(y.key, y.value, new Node(node.key, node.value, node.left, y.left), y.right);
+    }
+
+    private static Node rotateRight(Node node) {
+        Node y = node.left;
+        return new Node(y.key, y.value, y.left, new Node(node.key, node.value, y.right, node.right));
+    }
+
+    private static int height(Node node) {
+        return node == null ? -1 : node.height;
+    }
+
+    /**
+     * An immutable node, the height is computed from the subtrees when it is built.
+     */
+    private static final class Node {
+        final int key;
+        final String value;
+        final Node left, right;
+        final int height;
+
+        Node(int key, String value, Node left, Node right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+}
+
+/**
+ * ConcurrentAVLTree
+ * <p>
+ * A thread safe {@link AVLTree}. Writers (insert, delete, insertAll, deleteAll, buildFromSorted, join, split) hold the write lock of a
+ * {@link StampedLock}, one at a time. search, min, max, size and empty take no lock: they read the tree under an
+ * optimistic stamp and validate it afterwards, and only a read that overlapped a write is retried, falling back to
+ * the read lock after {@link #OPTIMISTIC_ATTEMPTS} attempts. Readers never write to shared memory, so lookups scale
+ * with the number of threads as long as writes are rare.
+ * <p>
+ * A search that races with a rotation may follow stale pointers, so it gives up after {@link #MAX_DEPTH} steps,
+ * deeper than any AVL tree of int size, and its result is thrown away unless the stamp is still valid.
+ * The array dumps and the order statistics queries run under the read lock. The node level methods inherited from
+ * {@link AVLTree} (getRoot, searchNodeByKey, floorNode, successor, the iterators...) are not synchronized and may only
+ * be used while no writer runs.
+ */
+class ConcurrentAVLTree extends AVLTree {
+
+    private static final int OPTIMISTIC_ATTEMPTS = 3;
+    private static final int MAX_DEPTH = 64; // an AVL tree of n nodes has height < 1.45 * log(n + 2)
+
+    private final StampedLock lock = new StampedLock();
+
+    public ConcurrentAVLTree() {
+        this(false);
+    }
+
+    /**
+     * @param orderStatistics true to keep the sizes of the subtrees, see {@link AVLTree#AVLTree(boolean)}
+     */
+    public ConcurrentAVLTree(boolean orderStatistics) {
+        super(orderStatistics);
+    }
+
+    /**
+     * <p>
+     * Searches the tree under an optimistic stamp, without locking, see {@link AVLTree#search(int)}.
+     * </p>
+     * Time Complexity: O(log(n)) while no writer runs
+     */
+    @Override
+    public String search(int k) {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp == 0) // a writer holds the lock
+                continue;
+            IAVLNode node = root;
+            String value = null;
+            int depth = 0;
+            while (node != null && depth++ < MAX_DEPTH) {
+                int key = node.getKey();
+                if (k == key) {
+                    value = node.getValue();
+                    break;
+                }
+                node = k < key ? node.getLeft() : node.getRight();
+            }
+            if (depth <= MAX_DEPTH && lock.validate(stamp))
+                return value;
+        }
+        long stamp = lock.readLock();
+        try {
+            return super.search(k);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public String min() {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            IAVLNode node = min;
+            String value = node == null ? null : node.getValue();
+            if (stamp != 0 && lock.validate(stamp))
+                return value;
+        }
+        long stamp = lock.readLock();
+        try {
+            return super.min();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public String max() {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            IAVLNode node = max;
+            String value = node == null ? null : node.getValue();
+            if (stamp != 0 && lock.validate(stamp))
+                return value;
+        }
+        long stamp = lock.readLock();
+        try {
+            return super.max();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int currentSize = size;
+        if (stamp != 0 && lock.validate(stamp))
+            return currentSize;
+        stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean empty() {
+        return size() == 0;
+    }
+
+    @Override
+    public int[] keysToArray() {
+        long stamp = lock.readLock();
+        try {
+            return super.keysToArray();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public String[] infoToArray() {
+        long stamp = lock.readLock();
+        try {
+            return super.infoToArray();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int toArrays(int[] keys, String[] infos) {
+        long stamp = lock.readLock();
+        try {
+            return super.toArrays(keys, infos);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public String select(int r) {
+        long stamp = lock.readLock();
+        try {
+            return super.select(r);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int rank(int k) {
+        long stamp = lock.readLock();
+        try {
+            return super.rank(k);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int countInRange(int a, int b) {
+        long stamp = lock.readLock();
+        try {
+            return super.countInRange(a, b);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int insert(int k, String i) {
+        long stamp = lock.writeLock();
+        try {
+            return super.insert(k, i);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int delete(int k) {
+        long stamp = lock.writeLock();
+        try {
+            return super.delete(k);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int buildFromSorted(int[] keys, String[] values) {
+        long stamp = lock.writeLock();
+        try {
+            return super.buildFromSorted(keys, values);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int insertAll(int[] keys, String[] values) {
+        long stamp = lock.writeLock();
+        try {
+            return super.insertAll(keys, values);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int deleteAll(int[] keys) {
+        long stamp = lock.writeLock();
+        try {
+            return super.deleteAll(keys);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * <p>
+     * Joins under the write lock of this tree, see {@link AVLTree#join(IAVLNode, AVLTree)}.
+     * t is emptied without its own lock, so no other thread may use it.
+     * </p>
+     */
+    @Override
+    public int join(IAVLNode x, AVLTree t) {
+        long stamp = lock.writeLock();
+        try {
+            return super.join(x, t);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * <p>
+     * Splits under the write lock, see {@link AVLTree#split(int)}. The two trees returned are {@link AVLTree}s in order
+     * statistics mode, and null is returned if this tree is not in that mode.
+     * </p>
+     */
+    @Override
+    public AVLTree[] split(int x) {
+        long stamp = lock.writeLock();
+        try {
+            return super.split(x);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+}
@@ -9,9 +9,11 @@
 public class CircularList {
 
     private Item[] arr;
-    private final int maxLen;
+    private int maxLen; // the length of arr, which only changes in growable mode
     private int len;
     private int start;
+    private final boolean growable;
+    private final int minLen; // in growable mode, arr never shrinks below this length
 
     /**
      * <p>
@@ -21,7 +23,25 @@ public class CircularList {
      * @param maxLen the maximum length the list can hold.
      */
     public CircularList(int maxLen) {
+        this(maxLen, false);
+    }
+
+    /**
+     * <p>
+     * Initialises the {@link CircularList} fields. In growable mode the list has no maximum length: an insert into a
+     * full list doubles the array, and a delete which leaves the list a quarter full halves it (but never below
+     * maxLen), so inserts and deletes at both ends stay O(1) amortized.
+     * </p>
+     * Time Complexity: O(maxLen)
+     * @param maxLen   the maximum length the list can hold, or the initial length of the array in growable mode.
+     * @param growable true to resize the array as needed instead of rejecting inserts into a full list.
+     */
+    public CircularList(int maxLen, boolean growable) {
+        if (growable)
+            maxLen = Math.max(maxLen, 1);
         this.maxLen = maxLen;
+        this.growable = growable;
+        minLen = maxLen;
         arr = new Item[maxLen];
         //Len, start are both defaulted to 0.
     }
@@ -39,35 +59,47 @@ public class CircularList {
         if (i >= len || i < 0)
             return null;
 
-        return arr[(start + i) % maxLen];
+        return arr[physical(i)];
     }
 
     /**
      * public int insert(int i, int k, String s)
      * <p>
      * inserts an item to the ith position in list  with key k and  info s.
-     * returns -1 if i<0 or i>n  or n=maxLen otherwise return 0.
+     * returns -1 if i<0 or i>n  or n=maxLen (and the list is not growable) otherwise return 0.
+     * The items before or after position i, whichever are fewer, are moved by one with {@link #move(int, int, int)}.
      * <p>
      * <p>
-     * Time Complexity: O(min{i+1, n-i+1})
+     * Time Complexity: O(min{i+1, n-i+1}), amortized in growable mode
      */
     public int insert(int i, int k, String s) {
-        if (i > len || i < 0 || len == maxLen)
+        if (i > len || i < 0 || (len == maxLen && !growable))
+            return -1;
+        return insert(i, new Item(k, s));
+    }
+
+    /**
+     * <p>
+     * Inserts item to the ith position in the list, after i was checked to be a valid position. Used by
+     * {@link #insert(int, int, String)}, and by {@link TieredList} to move items between blocks without copying them.
+     * </p>
+     * Time Complexity: O(min{i+1, n-i+1}), amortized in growable mode
+     *
+     * @return -1 if the list is full and not growable, otherwise 0
+     */
+    int insert(int i, Item item) {
+        if (len == maxLen && !growable)
             return -1;
-        Item newItem = new Item(k, s);
+        if (len == maxLen)
+            resize(2 * maxLen);
         if (i < len - i) {
-            for (int j = start; j < start + i; j++) {
-                arr[(j - 1 + maxLen) % maxLen] = arr[j % maxLen];
-            }
-            start = (maxLen + start - 1) % maxLen;
-        } else {
-            for (int j = start + len - 1; j >= start + i; j--) {
-                arr[(j + 1) % maxLen] = arr[j % maxLen];
-            }
-        }
+            move(0, -1, i);
+            start = physical(-1);
+        } else
+            move(i, i + 1, len - i);
 
         len++;
-        arr[(start + i) % maxLen] = newItem;
+        arr[physical(i)] = item;
         return 0;
     }
 
@@ -76,29 +108,173 @@ public class CircularList {
      * <p>
      * deletes an item in the ith posittion from the list.
      * returns -1 if i<0 or i>n-1 otherwise returns 0.
+     * The items before or after position i, whichever are fewer, are moved by one with {@link #move(int, int, int)}.
      * <p>
      * <p>
-     * Time Complexity: O(min{i+1, n-i+1})
+     * Time Complexity: O(min{i+1, n-i+1}), amortized in growable mode
      */
     public int delete(int i) {
         if (i >= len || i < 0)
             return -1;
 
-        if (i > len - i) {
-            for (int j = start + i; j < start + len - 1; j++) {
-                arr[j % maxLen] = arr[(j + 1) % maxLen];
-            }
+        if (i < len - i - 1) {
+            move(0, 1, i);
+            arr[start] = null; // so the deleted item can be garbage collected
+            start = physical(1);
         } else {
-            for (int j = start + i; j > 0; j--) {
-                arr[j % maxLen] = arr[(j - 1) % maxLen];
-            }
-            start++;
-
+            move(i + 1, i, len - i - 1);
+            arr[physical(len - 1)] = null;
         }
-        if (--len == 0)
-            start = -1;
+        len--;
+        shrink();
+        return 0;
+    }
+
+    /**
+     * public int insertAll(int i, int[] keys, String[] infos)
+     * <p>
+     * inserts the items (keys[j], infos[j]) to the list, in the order of the arrays, starting at the ith position.
+     * The items before or after position i, whichever are fewer, are moved once, by the size of the batch.
+     * returns -1 if i<0 or i>n, the arrays have different lengths, or the items do not fit (and the list is not
+     * growable) otherwise return 0.
+     * <p>
+     * Time Complexity: O(min{i+1, n-i+1} + b), for a batch of b items
+     */
+    public int insertAll(int i, int[] keys, String[] infos) {
+        int b = keys.length;
+        if (i > len || i < 0 || b != infos.length || (len + b > maxLen && !growable))
+            return -1;
+        if (len + b > maxLen)
+            resize(Math.max(2 * maxLen, len + b));
+        if (i < len - i) {
+            move(0, -b, i);
+            start = physical(-b);
+        } else
+            move(i, i + b, len - i);
+
+        len += b;
+        for (int j = 0; j < b; j++)
+            arr[physical(i + j)] = new Item(keys[j], infos[j]);
         return 0;
     }
+
+    /**
+     * public int deleteRange(int i, int j)
+     * <p>
+     * deletes the items in positions i..j-1 from the list.
+     * The items before position i or after position j-1, whichever are fewer, are moved once, by j-i.
+     * returns -1 if i<0, j>n or i>j, otherwise returns the number of items deleted.
+     * <p>
+     * Time Complexity: O(min{i+1, n-j+1} + j-i), amortized in growable mode
+     */
+    public int deleteRange(int i, int j) {
+        if (i < 0 || j > len || i > j)
+            return -1;
+        int b = j - i;
+        if (i < len - j) {
+            move(0, b, i);
+            clear(0, b);
+            start = physical(b);
+        } else {
+            move(j, i, len - j);
+            clear(len - b, b);
+        }
+        len -= b;
+        shrink();
+        return b;
+    }
+
+    /**
+     * <p>
+     * Moves the count items at positions from..from+count-1 of the list to positions to..to+count-1, where a position
+     * p is the index start+p of the ring (so it may be negative, or past the end of the list).
+     * The items are copied with System.arraycopy in contiguous blocks, each ending where the source or the destination
+     * reaches the end of the array: one block if neither wraps around, at most three if both do. The blocks are copied
+     * in the direction of the move, so no item is overwritten before it is moved.
+     * </p>
+     * Time Complexity: O(count)
+     */
+    private void move(int from, int to, int count) {
+        int done = 0;
+        if (to < from) { // towards the head, copy from the first item on
+            while (done < count) {
+                int src = physical(from + done), dst = physical(to + done);
+                int block = Math.min(count - done, Math.min(maxLen - src, maxLen - dst));
+                System.arraycopy(arr, src, arr, dst, block);
+                done += block;
+            }
+        } else if (to > from) { // towards the tail, copy from the last item back
+            while (done < count) {
+                int srcEnd = physical(from + count - done - 1) + 1, dstEnd = physical(to + count - done - 1) + 1;
+                int block = Math.min(count - done, Math.min(srcEnd, dstEnd));
+                System.arraycopy(arr, srcEnd - block, arr, dstEnd - block, block);
+                done += block;
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * Clears the count slots at positions from..from+count-1, so the items there can be garbage collected.
+     * </p>
+     * Time Complexity: O(count)
+     */
+    private void clear(int from, int count) {
+        int first = physical(from);
+        int firstPart = Math.min(count, maxLen - first);
+        java.util.Arrays.fill(arr, first, first + firstPart, null);
+        java.util.Arrays.fill(arr, 0, count - firstPart, null);
+    }
+
+    /**
+     * @param p a position relative to start, -maxLen &lt;= p &lt; maxLen
+     *
+     * @return the index of position p in the ring, without the cost of a modulo
+     */
+    private int physical(int p) {
+        int j = start + p;
+        if (j >= maxLen)
+            j -= maxLen;
+        else if (j < 0)
+            j += maxLen;
+        return j;
+    }
+
+    /**
+     * <p>
+     * In growable mode, halves the array while the list fills at most a quarter of it, but not below the initial
+     * length.
+     * </p>
+     * Time Complexity: O(1) amortized
+     */
+    private void shrink() {
+        if (!growable)
+            return;
+        int newLen = maxLen;
+        while (len <= newLen / 4 && newLen / 2 >= minLen)
+            newLen /= 2;
+        if (newLen != maxLen)
+            resize(newLen);
+    }
+
+    /**
+     * <p>
+     * Moves the items into a new array of length newLen, unwrapping the ring so that the list starts at index 0.
+     * The items are copied in one pass: the part from start to the end of the array, then the part that wrapped
+     * around to its beginning.
+     * </p>
+     * Time Complexity: O(n + newLen)
+     * @param newLen the new length of the array, at least len.
+     */
+    private void resize(int newLen) {
+        Item[] newArr = new Item[newLen];
+        int firstPart = Math.min(len, maxLen - start);
+        System.arraycopy(arr, start, newArr, 0, firstPart);
+        System.arraycopy(arr, 0, newArr, firstPart, len - firstPart);
+        arr = newArr;
+        maxLen = newLen;
+        start = 0;
+    }
 }
  
  
@@ -0,0 +1,309 @@
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * @author pinto - 322522111
+ * @author rashtiyarden - 315384578
+ * List benchmark
+ * <p>
+ * Benchmarks {@link CircularList}, {@link TreeList}, {@link TieredList}, {@link TreapList} and {@link AVLTree} and
+ * prints the results as CSV rows:
+ * <pre>
+ * structure,operation,position,n,nsPerOp,bytesPerOp
+ * </pre>
+ * Every row is the median of {@link #MEASURED_ROUNDS} rounds on a freshly built structure of n items, after
+ * {@link #WARMUP_ROUNDS} rounds that are not reported. bytesPerOp is the memory allocated by the benchmark thread per
+ * operation, or -1 if the JVM can not report it.
+ * <p>
+ * Usage: java ListBenchmark [output.csv]. Without an argument the results are printed to the standard output.
+ */
+public class ListBenchmark {
+
+    private static final int[] SIZES = {1000, 10000, 100000};
+    private static final String[] POSITIONS = {"head", "tail", "middle", "random"};
+    private static final int OPERATIONS = 1000; // The amount of operations in one round, at most n / 2
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private static volatile long sink; // Keeps the JIT from dropping the reads whose results are otherwise unused
+
+    public static void main(String[] args) throws FileNotFoundException {
+        PrintStream out = args.length > 0 ? new PrintStream(args[0]) : System.out;
+        out.println("structure,operation,position,n,nsPerOp,bytesPerOp");
+        for (int n : SIZES) {
+            for (String position : POSITIONS) {
+                benchmarkList(out, "CircularList", n, position);
+                benchmarkList(out, "TreeList", n, position);
+                benchmarkList(out, "TieredList", n, position);
+                benchmarkList(out, "TreapList", n, position);
+            }
+            benchmarkAVLTree(out, n);
+        }
+        out.flush();
+        if (out != System.out)
+            out.close();
+    }
+
+    /**
+     * <p>
+     * Measures insert, retrieve and delete at the given position of a list of n items.
+     * </p>
+     *
+     * @param structure "CircularList", "TreeList", "TieredList" or "TreapList"
+     * @param n         the amount of items in the list before the operations
+     * @param position  where the operations take place, one of {@link #POSITIONS}
+     */
+    private static void benchmarkList(PrintStream out, String structure, int n, String position) {
+        int count = Math.min(OPERATIONS, n / 2);
+        int[] randoms = new int[count];
+        Random random = new Random(n);
+        for (int j = 0; j < count; j++)
+            randoms[j] = random.nextInt(Integer.MAX_VALUE);
+
+        double[][] results = new double[3][];
+        results[0] = measure(() -> newList(structure, n, count), list -> {
+            for (int j = 0; j < count; j++) {
+                int len = n + j;
+                list.insert(position(position, len + 1, randoms[j]), j, "");
+            }
+        }, count);
+        results[1] = measure(() -> newList(structure, n, 0), list -> {
+            long keys = 0;
+            for (int j = 0; j < count; j++)
+                keys += list.retrieve(position(position, n, randoms[j])).getKey();
+            sink += keys;
+        }, count);
+        results[2] = measure(() -> newList(structure, n, 0), list -> {
+            for (int j = 0; j < count; j++) {
+                int len = n - j;
+                list.delete(position(position, len, randoms[j]));
+            }
+        }, count);
+        String[] operations = {"insert", "retrieve", "delete"};
+        for (int op = 0; op < operations.length; op++)
+            print(out, structure, operations[op], position, n, results[op]);
+    }
+
+    /**
+     * <p>
+     * Measures insert, search and delete of random keys, and keysToArray, on an {@link AVLTree} of n random keys.
+     * </p>
+     */
+    private static void benchmarkAVLTree(PrintStream out, int n) {
+        int count = Math.min(OPERATIONS, n / 2);
+        Random random = new Random(n);
+        int[] keys = new int[n + count]; // The first n keys build the tree, the rest are inserted by the benchmark
+        for (int j = 0; j < keys.length; j++)
+            keys[j] = j * 2;
+        for (int j = keys.length - 1; j > 0; j--) { // Shuffle
+            int other = random.nextInt(j + 1);
+            int temp = keys[j];
+            keys[j] = keys[other];
+            keys[other] = temp;
+        }
+        int arrays = 10;
+
+        print(out, "AVLTree", "insert", "random", n, measure(() -> newTree(keys, n), tree -> {
+            for (int j = n; j < n + count; j++)
+                tree.insert(keys[j], "");
+        }, count));
+        print(out, "AVLTree", "search", "random", n, measure(() -> newTree(keys, n), tree -> {
+            long found = 0;
+            for (int j = 0; j < count; j++)
+                if (tree.search(keys[j]) != null)
+                    found++;
+            sink += found;
+        }, count));
+        print(out, "AVLTree", "delete", "random", n, measure(() -> newTree(keys, n), tree -> {
+            for (int j = 0; j < count; j++)
+                tree.delete(keys[j]);
+        }, count));
+        print(out, "AVLTree", "keysToArray", "all", n, measure(() -> newTree(keys, n), tree -> {
+            for (int j = 0; j < arrays; j++)
+                sink += tree.keysToArray().length;
+        }, arrays));
+    }
+
+    /**
+     * <p>
+     * Runs the warmup and measured rounds of one benchmark. Every round builds a fresh structure with setup, which is
+     * not measured, and then measures benchmark on it.
+     * </p>
+     *
+     * @param count the amount of operations benchmark does, to normalize the results
+     *
+     * @return {median nanoseconds per operation, median bytes per operation}
+     */
+    private static <T> double[] measure(setupInterface<T> setup, benchmarkInterface<T> benchmark, int count) {
+        double[] times = new double[MEASURED_ROUNDS];
+        double[] bytes = new double[MEASURED_ROUNDS];
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            T structure = setup.create();
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            benchmark.run(structure);
+            long time = System.nanoTime() - start;
+            long allocated = allocatedBefore < 0 ? -1 : allocatedBytes() - allocatedBefore;
+            if (round >= WARMUP_ROUNDS) {
+                times[round - WARMUP_ROUNDS] = (double) time / count;
+                bytes[round - WARMUP_ROUNDS] = allocated < 0 ? -1 : (double) allocated / count;
+            }
+        }
+        Arrays.sort(times);
+        Arrays.sort(bytes);
+        return new double[]{times[MEASURED_ROUNDS / 2], bytes[MEASURED_ROUNDS / 2]};
+    }
+
+    private static void print(PrintStream out, String structure, String operation, String position, int n, double[] result) {
+        out.printf(Locale.ROOT, "%s,%s,%s,%d,%.2f,%.2f%n", structure, operation, position, n, result[0], result[1]);
+    }
+
+    /**
+     * @return the bytes allocated by the current thread so far, or -1 if the JVM does not track it
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        return -1;
+    }
+
+    /**
+     * @param position one of {@link #POSITIONS}
+     * @param len      the amount of valid positions, the list length for retrieve and delete or length + 1 for insert
+     * @param random   a random non negative number, used for the "random" position
+     *
+     * @return the index in the list the operation is done at
+     */
+    private static int position(String position, int len, int random) {
+        switch (position) {
+            case "head":
+                return 0;
+            case "tail":
+                return len - 1;
+            case "middle":
+                return len / 2;
+            default:
+                return random % len;
+        }
+    }
+
+    private static PositionalList newList(String structure, int n, int extraCapacity) {
+        PositionalList list;
+        if (structure.equals("CircularList"))
+            list = new CircularListAdapter(n + extraCapacity);
+        else if (structure.equals("TreeList"))
+            list = new TreeListAdapter();
+        else if (structure.equals("TieredList"))
+            list = new TieredListAdapter();
+        else
+            list = new TreapListAdapter();
+        for (int i = 0; i < n; i++)
+            list.insert(i, i, "");
+        return list;
+    }
+
+    private static AVLTree newTree(int[] keys, int n) {
+        AVLTree tree = new AVLTree();
+        for (int j = 0; j < n; j++)
+            tree.insert(keys[j], "");
+        return tree;
+    }
+
+    /**
+     * A Functional interface that builds the structure of a benchmark round
+     */
+    private interface setupInterface<T> {
+        T create();
+    }
+
+    /**
+     * A Functional interface that runs the measured operations of a benchmark round
+     */
+    private interface benchmarkInterface<T> {
+        void run(T structure);
+    }
+
+    /**
+     * The operations {@link CircularList}, {@link TreeList}, {@link TieredList} and {@link TreapList} have in common
+     */
+    private interface PositionalList {
+        Item retrieve(int i);
+
+        int insert(int i, int k, String s);
+
+        int delete(int i);
+    }
+
+    private static class CircularListAdapter implements PositionalList {
+        private final CircularList list;
+
+        CircularListAdapter(int maxLen) {
+            list = new CircularList(maxLen);
+        }
+
+        public Item retrieve(int i) {
+            return list.retrieve(i);
+        }
+
+        public int insert(int i, int k, String s) {
+            return list.insert(i, k, s);
+        }
+
+        public int delete(int i) {
+            return list.delete(i);
+        }
+    }
+
+    private static class TreeListAdapter implements PositionalList {
+        private final TreeList list = new TreeList();
+
+        public Item retrieve(int i) {
+            return list.retrieve(i);
+        }
+
+        public int insert(int i, int k, String s) {
+            return list.insert(i, k, s);
+        }
+
+        public int delete(int i) {
+            return list.delete(i);
+        }
+    }
+
+    private static class TieredListAdapter implements PositionalList {
+        private final TieredList list = new TieredList();
+
+        public Item retrieve(int i) {
+            return list.retrieve(i);
+        }
+
+        public int insert(int i, int k, String s) {
+            return list.insert(i, k, s);
+        }
+
+        public int delete(int i) {
+            return list.delete(i);
+        }
+    }
+
+    private static class TreapListAdapter implements PositionalList {
+        private final TreapList list = new TreapList();
+
+        public Item retrieve(int i) {
+            return list.retrieve(i);
+        }
+
+        public int insert(int i, int k, String s) {
+            return list.insert(i, k, s);
+        }
+
+        public int delete(int i) {
+            return list.delete(i);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * @author pinto - 322522111
+ * @author rashtiyarden - 315384578
+ * Tiered list
+ * <p>
+ * An implementation of a list with key and info as a tiered vector: the items are kept in order in blocks, which are
+ * {@link CircularList}s of a fixed length B (a power of 2). Every block is full except the last one, so the item at
+ * position i is at position i % B of block i / B, and retrieve is O(1) like in a {@link CircularList}.
+ * <p>
+ * An insert makes room inside its block, and the block's last item is carried to the head of the next block, and so on
+ * until the last block. Since a {@link CircularList} inserts and deletes at both ends in O(1), an insert or delete
+ * costs O(B + n/B), which is O(sqrt(n)) for B around sqrt(n).
+ * With the default constructor, B follows the length of the list: it doubles when there are more than B/4 blocks,
+ * and halves when there are fewer than B/32, rebuilding the blocks in O(n). This keeps B between about 2*sqrt(n)
+ * and 8*sqrt(n), since moving an item inside a block (a System.arraycopy) is much cheaper than carrying one between
+ * blocks.
+ */
+public class TieredList {
+
+    private static final int MIN_SHIFT = 5; // the adaptive block length is at least 2^5 = 32
+
+    private CircularList[] blocks;
+    private int blockCount; // the amount of blocks in use, blocks[0..blockCount-1]
+    private int shift; // B = 2^shift
+    private int len;
+    private final boolean adaptive;
+
+    /**
+     * <p>
+     * makes a new empty list whose block length follows the square root of its length.
+     * </p>
+     * Time Complexity: O(1)
+     */
+    public TieredList() {
+        this(1 << MIN_SHIFT, true);
+    }
+
+    /**
+     * <p>
+     * makes a new empty list with a fixed block length.
+     * </p>
+     * Time Complexity: O(1)
+     *
+     * @param blockLen the length of a block, rounded up to a power of 2
+     */
+    public TieredList(int blockLen) {
+        this(blockLen, false);
+    }
+
+    private TieredList(int blockLen, boolean adaptive) {
+        this.adaptive = adaptive;
+        shift = 32 - Integer.numberOfLeadingZeros(Math.max(blockLen, 1) - 1);
+        blocks = new CircularList[4];
+    }
+
+    /**
+     * public Item retrieve(int i)
+     * <p>
+     * returns the item in the ith position if it exists in the list.
+     * otherwise, returns null
+     * <p>
+     * Time Complexity: O(1)
+     */
+    public Item retrieve(int i) {
+        if (i >= len || i < 0)
+            return null;
+        return blocks[i >>> shift].retrieve(i & blockMask());
+    }
+
+    /**
+     * public int insert(int i, int k, String s)
+     * <p>
+     * inserts an item to the ith position in list  with key k and  info s.
+     * returns -1 if i<0 or i>n otherwise return 0.
+     * <p>
+     * Time Complexity: O(B + n/B), amortized when B changes
+     */
+    public int insert(int i, int k, String s) {
+        if (i > len || i < 0)
+            return -1;
+        int blockLen = 1 << shift;
+        if (len == blockCount * blockLen) // every block is full
+            addBlock();
+        int b = i >>> shift, offset = i & blockMask();
+        Item carry = new Item(k, s);
+        while (b < blockCount - 1) { // a full block, its last item is carried to the next block
+            CircularList block = blocks[b];
+            Item last = block.retrieve(blockLen - 1);
+            block.delete(blockLen - 1);
+            block.insert(offset, carry);
+            carry = last;
+            b++;
+            offset = 0;
+        }
+        blocks[b].insert(offset, carry);
+        len++;
+        if (adaptive && blockCount > (1 << shift) / 4)
+            rebuild(shift + 1);
+        return 0;
+    }
+
+    /**
+     * public int delete(int i)
+     * <p>
+     * deletes an item in the ith posittion from the list.
+     * returns -1 if i<0 or i>n-1 otherwise returns 0.
+     * <p>
+     * Time Complexity: O(B + n/B), amortized when B changes
+     */
+    public int delete(int i) {
+        if (i >= len || i < 0)
+            return -1;
+        int blockLen = 1 << shift;
+        int b = i >>> shift;
+        blocks[b].delete(i & blockMask());
+        for (b++; b < blockCount; b++) { // the first item of every following block is carried to the block before it
+            Item first = blocks[b].retrieve(0);
+            blocks[b].delete(0);
+            blocks[b - 1].insert(blockLen - 1, first);
+        }
+        len--;
+        if (len == (blockCount - 1) * blockLen) // the last block is empty
+            blocks[--blockCount] = null;
+        if (adaptive && shift > MIN_SHIFT && blockCount < (1 << shift) / 32)
+            rebuild(shift - 1);
+        return 0;
+    }
+
+    private int blockMask() {
+        return (1 << shift) - 1;
+    }
+
+    /**
+     * <p>
+     * Adds an empty block after the last one, doubling the array of blocks if it is full.
+     * </p>
+     * Time Complexity: O(B), amortized
+     */
+    private void addBlock() {
+        if (blockCount == blocks.length)
+            blocks = java.util.Arrays.copyOf(blocks, 2 * blocks.length);
+        blocks[blockCount++] = new CircularList(1 << shift);
+    }
+
+    /**
+     * <p>
+     * Moves all items, in order, into new blocks of length 2^newShift.
+     * </p>
+     * Time Complexity: O(n)
+     */
+    private void rebuild(int newShift) {
+        CircularList[] oldBlocks = blocks;
+        int oldShift = shift, oldMask = blockMask();
+        shift = newShift;
+        blocks = new CircularList[4];
+        blockCount = 0;
+        int blockLen = 1 << shift;
+        for (int i = 0; i < len; i++) {
+            if (i == blockCount * blockLen)
+                addBlock();
+            blocks[i >>> shift].insert(i & blockMask(), oldBlocks[i >>> oldShift].retrieve(i & oldMask));
+        }
+    }
+}
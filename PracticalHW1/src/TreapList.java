@@ -0,0 +1,348 @@
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @author pinto - 322522111
+ * @author rashtiyarden - 315384578
+ * Treap list
+ * <p>
+ * An implementation of a list with key and info as an implicit treap: a binary tree which is in list order in-order,
+ * and a heap by random priorities, so its expected depth is O(log(n)). A node's position is not stored, it is the size
+ * of the part of the tree before it, like the rank in {@link RankTreeList}.
+ * <p>
+ * Every operation is built from split (cut the tree into the first i items and the rest) and merge (join two trees
+ * whose items are in order), both O(log(n)) expected. Besides retrieve, insert and delete this gives concatenate,
+ * split, cut, paste and reverse of a whole range in O(log(n)) expected. A reverse only marks the root of the range's
+ * tree; the children of a marked node are swapped (and the mark passed to them) when a later operation goes through it.
+ * <p>
+ * Every list draws its priorities from its own generator, seeded at random, and merge breaks equal priorities at random,
+ * so lists built separately and then joined are still balanced. split and merge run in a loop, not by recursion.
+ */
+public class TreapList {
+
+    private Node root;
+    private int seed = ThreadLocalRandom.current().nextInt() | 1; // the state of the xorshift generator of the priorities, never 0
+    private Node[] path = new Node[64]; // the nodes split and merge went through, to update their sizes bottom up
+
+    /**
+     * public Item retrieve(int i)
+     * <p>
+     * returns the item in the ith position if it exists in the list.
+     * otherwise, returns null
+     * <p>
+     * Time Complexity: O(log(n)) expected
+     */
+    public Item retrieve(int i) {
+        if (i < 0 || i >= size(root))
+            return null;
+        Node node = root;
+        while (true) {
+            push(node);
+            int leftSize = size(node.left);
+            if (i == leftSize)
+                return node.item;
+            if (i < leftSize)
+                node = node.left;
+            else {
+                i -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * public int insert(int i, int k, String s)
+     * <p>
+     * inserts an item to the ith position in list  with key k and  info s.
+     * returns -1 if i<0 or i>n otherwise return 0.
+     * <p>
+     * Time Complexity: O(log(n)) expected
+     */
+    public int insert(int i, int k, String s) {
+        if (i < 0 || i > size(root))
+            return -1;
+        Node[] parts = split(root, i);
+        root = merge(merge(parts[0], new Node(new Item(k, s), nextPriority())), parts[1]);
+        return 0;
+    }
+
+    /**
+     * public int delete(int i)
+     * <p>
+     * deletes an item in the ith posittion from the list.
+     * returns -1 if i<0 or i>n-1 otherwise returns 0.
+     * <p>
+     * Time Complexity: O(log(n)) expected
+     */
+    public int delete(int i) {
+        if (i < 0 || i >= size(root))
+            return -1;
+        Node[] parts = split(root, i);
+        Node[] rest = split(parts[1], 1);
+        root = merge(parts[0], rest[1]);
+        return 0;
+    }
+
+    /**
+     * public int size()
+     * <p>
+     * returns the number of items in the list.
+     * <p>
+     * Time Complexity: O(1)
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * public void concatenate(TreapList other)
+     * <p>
+     * appends the items of other to the end of the list, and leaves other empty.
+     * <p>
+     * Time Complexity: O(log(n)) expected
+     */
+    public void concatenate(TreapList other) {
+        if (other == this)
+            return;
+        root = merge(root, other.root);
+        other.root = null;
+    }
+
+    /**
+     * public TreapList split(int i)
+     * <p>
+     * removes the items in positions i..n-1 from the list and returns them as a new list.
+     * returns null if i<0 or i>n.
+     * <p>
+     * Time Complexity: O(log(n)) expected
+     */
+    public TreapList split(int i) {
+        if (i < 0 || i > size(root))
+            return null;
+        Node[] parts = split(root, i);
+        root = parts[0];
+        return newList(parts[1]);
+    }
+
+    /**
+     * public TreapList cut(int i, int j)
+     * <p>
+     * removes the items in positions i..j-1 from the list and returns them as a new list, without copying them.
+     * returns null if i<0, j>n or i>j.
+     * <p>
+     * Time Complexity: O(log(n)) expected
+     */
+    public TreapList cut(int i, int j) {
+        if (i < 0 || j > size(root) || i > j)
+            return null;
+        Node[] parts = split(root, i);
+        Node[] rest = split(parts[1], j - i);
+        root = merge(parts[0], rest[1]);
+        return newList(rest[0]);
+    }
+
+    /**
+     * public int paste(int i, TreapList other)
+     * <p>
+     * inserts the items of other to the list, in their order, starting at the ith position, and leaves other empty.
+     * returns -1 if i<0 or i>n (or other is this list) otherwise return 0.
+     * <p>
+     * Time Complexity: O(log(n)) expected
+     */
+    public int paste(int i, TreapList other) {
+        if (i < 0 || i > size(root) || other == this)
+            return -1;
+        Node[] parts = split(root, i);
+        root = merge(merge(parts[0], other.root), parts[1]);
+        other.root = null;
+        return 0;
+    }
+
+    /**
+     * public int reverse(int i, int j)
+     * <p>
+     * reverses the order of the items in positions i..j-1.
+     * returns -1 if i<0, j>n or i>j otherwise return 0.
+     * <p>
+     * Time Complexity: O(log(n)) expected, the items are swapped lazily by later operations
+     */
+    public int reverse(int i, int j) {
+        if (i < 0 || j > size(root) || i > j)
+            return -1;
+        Node[] parts = split(root, i);
+        Node[] rest = split(parts[1], j - i);
+        if (rest[0] != null)
+            rest[0].reversed = !rest[0].reversed;
+        root = merge(merge(parts[0], rest[0]), rest[1]);
+        return 0;
+    }
+
+    private TreapList newList(Node newRoot) {
+        TreapList list = new TreapList();
+        list.root = newRoot;
+        return list;
+    }
+
+    /**
+     * <p>
+     * Splits the tree of node into the first i items and the rest, in one walk down: every node on the way goes to the
+     * first part (hung on its right spine) if it is among the first i items, otherwise to the second part (hung on its
+     * left spine). The sizes of the nodes on the way are then updated from the deepest one up.
+     * </p>
+     * Time Complexity: O(log(n)) expected
+     *
+     * @return {the root of the first i items, the root of the rest}, each may be null
+     */
+    private Node[] split(Node node, int i) {
+        Node[] parts = new Node[2];
+        Node firstLast = null, secondFirst = null; // the last node hung on the first part, the first one of the second
+        int depth = 0;
+        while (node != null) {
+            push(node);
+            depth = visit(node, depth);
+            if (i <= size(node.left)) {
+                if (secondFirst == null)
+                    parts[1] = node;
+                else
+                    secondFirst.left = node;
+                secondFirst = node;
+                node = node.left;
+            } else {
+                i -= size(node.left) + 1;
+                if (firstLast == null)
+                    parts[0] = node;
+                else
+                    firstLast.right = node;
+                firstLast = node;
+                node = node.right;
+            }
+        }
+        if (firstLast != null)
+            firstLast.right = null;
+        if (secondFirst != null)
+            secondFirst.left = null;
+        updatePath(depth);
+        return parts;
+    }
+
+    /**
+     * <p>
+     * Joins two trees, all items of first before all items of second, in one walk down: the root with the higher
+     * priority (or a random one of two equal priorities) becomes the next node, and the walk goes on with its inner
+     * subtree in its place. The sizes of the nodes on the way are then updated from the deepest one up.
+     * </p>
+     * Time Complexity: O(log(n)) expected
+     *
+     * @return the root of the joined tree
+     */
+    private Node merge(Node first, Node second) {
+        Node newRoot = null, parent = null;
+        boolean right = false; // the side of parent the next node is hung on
+        int depth = 0;
+        while (first != null && second != null) {
+            Node top;
+            boolean firstOnTop = first.priority > second.priority
+                    || (first.priority == second.priority && (nextPriority() & 1) == 0);
+            if (firstOnTop) {
+                push(first);
+                top = first;
+                first = first.right;
+            } else {
+                push(second);
+                top = second;
+                second = second.left;
+            }
+            if (parent == null)
+                newRoot = top;
+            else if (right)
+                parent.right = top;
+            else
+                parent.left = top;
+            parent = top;
+            right = firstOnTop;
+            depth = visit(top, depth);
+        }
+        Node rest = first != null ? first : second;
+        if (parent == null)
+            newRoot = rest;
+        else if (right)
+            parent.right = rest;
+        else
+            parent.left = rest;
+        updatePath(depth);
+        return newRoot;
+    }
+
+    /**
+     * @return depth + 1, after keeping node as the node at depth in {@link #path}, which doubles when it is full
+     */
+    private int visit(Node node, int depth) {
+        if (depth == path.length)
+            path = java.util.Arrays.copyOf(path, 2 * depth);
+        path[depth] = node;
+        return depth + 1;
+    }
+
+    /**
+     * <p>
+     * Updates the sizes of the first depth nodes of {@link #path}, from the deepest one up, since the children of a
+     * node on the path are either off the path (and did not change) or deeper on it.
+     * </p>
+     * Time Complexity: O(depth)
+     */
+    private void updatePath(int depth) {
+        for (int d = depth - 1; d >= 0; d--) {
+            update(path[d]);
+            path[d] = null;
+        }
+    }
+
+    /**
+     * <p>
+     * If node is marked as reversed, swaps its children and passes the mark on to them.
+     * </p>
+     * Time Complexity: O(1)
+     */
+    private static void push(Node node) {
+        if (!node.reversed)
+            return;
+        Node temp = node.left;
+        node.left = node.right;
+        node.right = temp;
+        if (node.left != null)
+            node.left.reversed = !node.left.reversed;
+        if (node.right != null)
+            node.right.reversed = !node.right.reversed;
+        node.reversed = false;
+    }
+
+    private static void update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * @return the next random priority, from a xorshift generator
+     */
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    private static final class Node {
+        final Item item;
+        final int priority;
+        Node left, right;
+        int size = 1;
+        boolean reversed; // the subtree is to be read in reverse order, its children are not swapped yet
+
+        Node(Item item, int priority) {
+            this.item = item;
+            this.priority = priority;
+        }
+    }
+}
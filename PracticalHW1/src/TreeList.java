@@ -31,6 +31,42 @@ public class TreeList {
         return tree.retrieve(i);
     }
 
+    /**
+     * public int keyAt(int i)
+     * <p>
+     * returns the key of the item in the ith position without allocating an {@link Item}.
+     * returns -1 if i<0 or i>n-1.
+     * Time Complexity: O(log(n))
+     */
+    public int keyAt(int i) {
+        return tree.keyAt(i);
+    }
+
+    /**
+     * public String infoAt(int i)
+     * <p>
+     * returns the info of the item in the ith position without allocating an {@link Item}.
+     * returns null if i<0 or i>n-1.
+     * Time Complexity: O(log(n))
+     */
+    public String infoAt(int i) {
+        return tree.infoAt(i);
+    }
+
+    /**
+     * public Cursor cursor(int i)
+     * <p>
+     * returns a {@link Cursor} at the ith position, which reads items without allocating, steps to the next or previous
+     * position in O(1) amortized, moves to a nearby position (O(log(d)) for a distance d unless the move crosses a
+     * high node of the tree, O(log(n)) worst case), and inserts and deletes at its position without a search.
+     * The cursor is valid until the list is changed other than through it.
+     * returns null if i<0 or i>n.
+     * Time Complexity: O(log(n))
+     */
+    public Cursor cursor(int i) {
+        return tree.cursor(i);
+    }
+
     /**
      * public int insert(int i, int k, String s)
      * <p>
@@ -53,4 +89,92 @@ public class TreeList {
         return tree.delete(i);
     }
 
-}
\ No newline at end of file
+    /**
+     * public int insertAll(int i, int[] keys, String[] infos)
+     * <p>
+     * inserts the items (keys[j], infos[j]) to the list, in the order of the arrays, starting at the ith position.
+     * returns -1 if i<0, i>n or the arrays have different lengths, otherwise returns 0.
+     * Time Complexity: O(b + log(n)), for a batch of b items
+     */
+    public int insertAll(int i, int[] keys, String[] infos) {
+        return tree.insertAll(i, keys, infos);
+    }
+
+    /**
+     * public int deleteRange(int i, int j)
+     * <p>
+     * deletes the items in positions i..j-1 from the list.
+     * returns -1 if i<0, j>n or i>j, otherwise returns the number of items deleted.
+     * Time Complexity: O(log(n))
+     */
+    public int deleteRange(int i, int j) {
+        return tree.deleteRange(i, j);
+    }
+
+    /**
+     * public void concatenate(TreeList other)
+     * <p>
+     * appends the items of other to the end of the list, and leaves other empty.
+     * Time Complexity: O(log(n))
+     */
+    public void concatenate(TreeList other) {
+        tree.concat(other.tree);
+    }
+
+    /**
+     * public TreeList split(int i)
+     * <p>
+     * removes the items in positions i..n-1 from the list and returns them as a new list.
+     * returns null if i<0 or i>n.
+     * Time Complexity: O(log(n))
+     */
+    public TreeList split(int i) {
+        if (i < 0 || i > tree.size())
+            return null;
+        TreeList tail = new TreeList();
+        tree.moveTail(i, tail.tree);
+        return tail;
+    }
+
+    /**
+     * public TreeList sublist(int i, int j)
+     * <p>
+     * removes the items in positions i..j-1 from the list and returns them as a new list, without copying them.
+     * returns null if i<0, j>n or i>j.
+     * Time Complexity: O(log(n))
+     */
+    public TreeList sublist(int i, int j) {
+        if (i < 0 || j > tree.size() || i > j)
+            return null;
+        TreeList tail = split(i);
+        TreeList rest = tail.split(j - i);
+        concatenate(rest);
+        return tail;
+    }
+
+    /**
+     * public interface Cursor
+     * <p>
+     * A position in the list, 0..n, where position n is past the last item. See {@link #cursor(int)}.
+     */
+    public interface Cursor {
+        public int position(); //returns the position of the cursor
+
+        public boolean hasItem(); //returns false if the cursor is past the end
+
+        public int getKey(); //returns the key of the item at the cursor, or -1 past the end
+
+        public String getInfo(); //returns the info of the item at the cursor, or null past the end
+
+        public boolean next(); //moves to the next position, returns false if the cursor was past the end
+
+        public boolean previous(); //moves to the previous position, returns false if the cursor was at position 0
+
+        public int moveTo(int j); //moves to position j, returns -1 if j<0 or j>n otherwise 0
+
+        public int insert(int k, String s); //inserts an item at the cursor and stays on it, returns 0
+
+        public int delete(); //deletes the item at the cursor and moves to the next one, returns -1 past the end otherwise 0
+    }
+
+}
@@ -1,16 +1,64 @@
 public class AQPHashTable extends OAHashTable {
 
-	private ModHash hash;
+	private IHashFunction hash;
 	private int m;
+	private final IHashFunction.Family family;
 
 	public AQPHashTable(int m, long p) {
-		super(m);
-		hash = ModHash.GetFunc(m, p);
+		this(m, p, 0);
+	}
+
+	public AQPHashTable(int m, long p, double maxLoadFactor) {
+		this(m, p, maxLoadFactor, 0);
+	}
+
+	public AQPHashTable(int m, long p, double maxLoadFactor, int migrationStep) {
+		this(m, k -> ModHash.GetFunc(k, p), maxLoadFactor, migrationStep);
+	}
+
+	public AQPHashTable(int m, IHashFunction.Family family, double maxLoadFactor, int migrationStep) {
+		super(m, maxLoadFactor, migrationStep);
+		hash = family.GetFunc(m);
 		this.m = m;
+		this.family = family;
 	}
 	
 	@Override
 	public int Hash(long x, int i) {
-		return i % 2 == 0 ? ((hash.Hash(x) + i*i) % m) : Math.floorMod(hash.Hash(x) - (i * i), m);
+		long square = (long) i * i; // i*i overflows an int once the table grows past 46340
+		return (int) (i % 2 == 0 ? ((hash.Hash(x) + square) % m) : Math.floorMod(hash.Hash(x) - square, (long) m));
+	}
+
+	@Override
+	protected int NextProbe(int first, int previous, int step, int i) {
+		// Recover (i-1)^2 mod m from the previous position, which was first + (i-1)^2 for an even i-1 and first - (i-1)^2 for an odd one
+		int square = (i - 1) % 2 == 0 ? previous - first : first - previous;
+		if (square < 0)
+			square += m;
+		long next = square + 2L * i - 1; // i^2 = (i-1)^2 + 2i - 1
+		while (next >= m)
+			next -= m;
+		if (i % 2 == 0)
+			next = first + next >= m ? first + next - m : first + next;
+		else
+			next = first - next < 0 ? first - next + m : first - next;
+		return (int) next;
+	}
+
+	@Override
+	protected void ResetHash(int m) {
+		hash = family.GetFunc(m);
+		this.m = m;
+	}
+
+	/**
+	 * The alternating sequence visits every slot only when m is a prime with m % 4 == 3, so the table grows to such a prime.
+	 */
+	@Override
+	protected int NextSize(int m) {
+		int next = ModHash.NextPrime(2 * m + 1);
+		while (next % 4 != 3)
+			next = ModHash.NextPrime(next + 1);
+		return next;
 	}
 }
@@ -1,22 +1,54 @@
-
 public class DoubleHashTable extends OAHashTable {
 
-    private ModHash hash1; // Returns values between 0 to m-1
-    private ModHash hash2; // Returns values between 0 to m-2
+    private IHashFunction hash1; // Returns values between 0 to m-1
+    private IHashFunction hash2; // Returns values between 0 to m-2
     private int m;
+    private final IHashFunction.Family family;
 
     public DoubleHashTable(int m, long p) {
-        super(m);
-        hash1 = ModHash.GetFunc(m, p); // Returns values between 0 to m-1
-        hash2 = ModHash.GetFunc(m - 1, p); // Returns values between 0 to m-2
+        this(m, p, 0);
+    }
+
+    public DoubleHashTable(int m, long p, double maxLoadFactor) {
+        this(m, p, maxLoadFactor, 0);
+    }
+
+    public DoubleHashTable(int m, long p, double maxLoadFactor, int migrationStep) {
+        this(m, k -> ModHash.GetFunc(k, p), maxLoadFactor, migrationStep);
+    }
+
+    public DoubleHashTable(int m, IHashFunction.Family family, double maxLoadFactor, int migrationStep) {
+        super(m, maxLoadFactor, migrationStep);
+        hash1 = family.GetFunc(m); // Returns values between 0 to m-1
+        hash2 = family.GetFunc(m - 1); // Returns values between 0 to m-2
         this.m = m;
+        this.family = family;
     }
 
 
     @Override
     public int Hash(long x, int i) {
         // We want h1 to return values between 0 to m-1, and h2 to return values between 1 to m-1, thus we add 1 to h2 returned value
-        return Math.floorMod(hash1.Hash(x) + i * (hash2.Hash(x) + 1), m);
+        // The step is multiplied as a long, it overflows an int once the table grows past 46340
+        return (int) Math.floorMod(hash1.Hash(x) + (long) i * (hash2.Hash(x) + 1), (long) m);
+    }
+
+    @Override
+    protected int ProbeStep(long x) {
+        return hash2.Hash(x) + 1;
+    }
+
+    @Override
+    protected int NextProbe(int first, int previous, int step, int i) {
+        int next = previous + step; // Both are below m, so the sum does not overflow for m < 2^30
+        return next >= m ? next - m : next;
+    }
+
+    @Override
+    protected void ResetHash(int m) {
+        hash1 = family.GetFunc(m);
+        hash2 = family.GetFunc(m - 1);
+        this.m = m;
     }
 
 }
@@ -0,0 +1,170 @@
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Benchmarks every {@link IHashTable} implementation and prints the results as CSV, one row per
+ * (table, key distribution, table size, load factor, operation):
+ * <pre>
+ * table,distribution,m,loadFactor,operation,nsPerOp,failures
+ * </pre>
+ * nsPerOp is the median of {@link #MEASURED_ROUNDS} rounds, each on a freshly built table, after {@link #WARMUP_ROUNDS}
+ * rounds that are not reported. failures counts the Insert calls that threw {@link IHashTable.TableIsFullException}
+ * in the last round.
+ * <p>
+ * Usage: java HashTableBenchmark [output.csv]. Without an argument the results are printed to the standard output.
+ */
+public class HashTableBenchmark {
+
+    private static final long P = 1000000007L;
+    private static final int[] SIZES = {10007, 1000003}; // Primes with m % 4 == 3, so AQP covers the whole table
+    private static final double[] LOAD_FACTORS = {0.25, 0.5, 0.75, 0.9};
+    private static final String[] DISTRIBUTIONS = {"uniform", "sequential", "multiplesOfM"};
+    private static final String[] OPERATIONS = {"Insert", "FindHit", "FindMiss", "Delete"};
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private static volatile long sink; // Keeps the JIT from dropping the lookups whose results are otherwise unused
+
+    private interface TableFactory {
+        IHashTable Create(int m);
+    }
+
+    private static final String[] NAMES = {"LP", "QP", "AQP", "DH", "RobinHood", "LP-MultiplyShift", "DH-MultiplyShift",
+            "PrimitiveLP", "PrimitiveQP", "PrimitiveAQP", "PrimitiveDH", "Striped-LP", "NonBlocking"};
+    private static final TableFactory[] FACTORIES = {
+            m -> new LPHashTable(m, P),
+            m -> new QPHashTable(m, P),
+            m -> new AQPHashTable(m, P),
+            m -> new DoubleHashTable(m, P),
+            m -> new RobinHoodHashTable(m, P),
+            m -> new LPHashTable(m, MultiplyShiftHash::GetFunc, 0, 0),
+            m -> new DoubleHashTable(m, MultiplyShiftHash::GetFunc, 0, 0),
+            m -> new PrimitiveLPHashTable(m, P),
+            m -> new PrimitiveQPHashTable(m, P),
+            m -> new PrimitiveAQPHashTable(m, P),
+            m -> new PrimitiveDoubleHashTable(m, P),
+            m -> new StripedHashTable(16, () -> new LPHashTable(ModHash.NextPrime(m / 16), P, 0.9)),
+            m -> new NonBlockingHashTable(m),
+    };
+
+    public static void main(String[] args) throws FileNotFoundException {
+        PrintStream out = args.length > 0 ? new PrintStream(args[0]) : System.out;
+        out.println("table,distribution,m,loadFactor,operation,nsPerOp,failures");
+        for (int t = 0; t < FACTORIES.length; t++)
+            for (String distribution : DISTRIBUTIONS)
+                for (int m : SIZES)
+                    for (double loadFactor : LOAD_FACTORS)
+                        Run(out, NAMES[t], FACTORIES[t], distribution, m, loadFactor);
+        out.flush();
+        if (out != System.out)
+            out.close();
+    }
+
+    /**
+     * Measures the four operations of one configuration and prints a row for each.
+     */
+    private static void Run(PrintStream out, String name, TableFactory factory, String distribution, int m, double loadFactor) {
+        int n = (int) (m * loadFactor);
+        long[] present = new long[n];
+        long[] absent = new long[n];
+        Keys(distribution, m, present, absent);
+        long[][] times = new long[OPERATIONS.length][MEASURED_ROUNDS];
+        int failures = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            IHashTable table = factory.Create(m);
+            long[] roundTimes = new long[OPERATIONS.length];
+            long start = System.nanoTime();
+            failures = InsertAll(table, present);
+            roundTimes[0] = System.nanoTime() - start;
+            start = System.nanoTime();
+            FindAll(table, present);
+            roundTimes[1] = System.nanoTime() - start;
+            start = System.nanoTime();
+            FindAll(table, absent);
+            roundTimes[2] = System.nanoTime() - start;
+            start = System.nanoTime();
+            DeleteAll(table, present);
+            roundTimes[3] = System.nanoTime() - start;
+            if (round >= WARMUP_ROUNDS)
+                for (int op = 0; op < OPERATIONS.length; op++)
+                    times[op][round - WARMUP_ROUNDS] = roundTimes[op];
+        }
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            Arrays.sort(times[op]);
+            double nsPerOp = n == 0 ? 0 : (double) times[op][MEASURED_ROUNDS / 2] / n;
+            out.printf(Locale.ROOT, "%s,%s,%d,%.2f,%s,%.2f,%d%n", name, distribution, m, loadFactor, OPERATIONS[op], nsPerOp, failures);
+        }
+    }
+
+    /**
+     * Fills present with distinct keys of the distribution, and absent with distinct keys of the same distribution
+     * that are not in present. The multiplesOfM keys all have x mod m = 0, the worst case for a hash that does not mix
+     * the key before taking it mod m.
+     */
+    private static void Keys(String distribution, int m, long[] present, long[] absent) {
+        int n = present.length;
+        switch (distribution) {
+            case "sequential":
+                for (int i = 0; i < n; i++) {
+                    present[i] = i;
+                    absent[i] = n + i;
+                }
+                break;
+            case "multiplesOfM":
+                for (int i = 0; i < n; i++) {
+                    present[i] = (long) i * m;
+                    absent[i] = (long) (n + i) * m;
+                }
+                break;
+            default: // uniform, even keys are present and odd keys are absent so the two never meet
+                Random random = new Random(n);
+                for (int i = 0; i < n; i++) {
+                    present[i] = (random.nextLong() >>> 2) << 1; // Non negative, so Long.MIN_VALUE (reserved by NonBlockingHashTable) is never drawn
+                    absent[i] = present[i] + 1;
+                }
+                // Random keys may repeat, replace the duplicates by shifting them to a key that is not used yet
+                HashSet<Long> seen = new HashSet<>();
+                for (int i = 0; i < n; i++)
+                    while (!seen.add(present[i])) {
+                        present[i] += 2;
+                        absent[i] += 2;
+                    }
+        }
+    }
+
+    private static int InsertAll(IHashTable table, long[] keys) {
+        int failures = 0;
+        for (long key : keys) {
+            try {
+                table.Insert(new HashTableElement(key, key));
+            } catch (IHashTable.TableIsFullException e) {
+                failures++;
+            } catch (IHashTable.KeyAlreadyExistsException e) {
+                throw new IllegalStateException("The benchmark keys must be distinct: " + key);
+            }
+        }
+        return failures;
+    }
+
+    private static void FindAll(IHashTable table, long[] keys) {
+        long found = 0;
+        for (long key : keys)
+            if (table.Find(key) != null)
+                found++;
+        sink += found;
+    }
+
+    private static void DeleteAll(IHashTable table, long[] keys) {
+        for (long key : keys) {
+            try {
+                table.Delete(key);
+            } catch (IHashTable.KeyDoesntExistException e) {
+                // A key that did not fit in the table on Insert, already counted in failures
+            }
+        }
+    }
+}
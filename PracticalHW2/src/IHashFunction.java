@@ -0,0 +1,22 @@
+public interface IHashFunction {
+
+	/**
+	 * @param key - the key to hash
+	 * @return the hash value of key, between 0 to m-1 where m is the range the function was created for
+	 */
+	public int Hash(long key);
+
+	/**
+	 * A universal family of hash functions, a table picks a random member with {@link #GetFunc(int)} and picks a new one
+	 * whenever it is resized.
+	 * For example {@code m -> ModHash.GetFunc(m, p)} or {@code MultiplyShiftHash::GetFunc}.
+	 */
+	public interface Family {
+
+		/**
+		 * @param m - the range of the hash function
+		 * @return a random hash function of the family with values between 0 to m-1
+		 */
+		public IHashFunction GetFunc(int m);
+	}
+}
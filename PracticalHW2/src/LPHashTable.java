@@ -1,12 +1,26 @@
 public class LPHashTable extends OAHashTable {
 
-    private ModHash hash;
+    private IHashFunction hash;
     private int m;
+    private final IHashFunction.Family family;
 
     public LPHashTable(int m, long p) {
-        super(m);
-        hash = ModHash.GetFunc(m, p);
+        this(m, p, 0);
+    }
+
+    public LPHashTable(int m, long p, double maxLoadFactor) {
+        this(m, p, maxLoadFactor, 0);
+    }
+
+    public LPHashTable(int m, long p, double maxLoadFactor, int migrationStep) {
+        this(m, k -> ModHash.GetFunc(k, p), maxLoadFactor, migrationStep);
+    }
+
+    public LPHashTable(int m, IHashFunction.Family family, double maxLoadFactor, int migrationStep) {
+        super(m, maxLoadFactor, migrationStep);
+        hash = family.GetFunc(m);
         this.m = m;
+        this.family = family;
     }
 
     @Override
@@ -14,4 +28,20 @@ public class LPHashTable extends OAHashTable {
         return (hash.Hash(x) + i) % m;
     }
 
+    @Override
+    protected int NextProbe(int first, int previous, int step, int i) {
+        return previous + 1 == m ? 0 : previous + 1;
+    }
+
+    @Override
+    protected boolean ShiftOnDelete() {
+        return true; // Deletions move the rest of the cluster back instead of leaving deleted markers
+    }
+
+    @Override
+    protected void ResetHash(int m) {
+        hash = family.GetFunc(m);
+        this.m = m;
+    }
+
 }
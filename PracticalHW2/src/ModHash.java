@@ -1,4 +1,4 @@
-public class ModHash {
+public class ModHash implements IHashFunction {
 
 	private final long a,b, p;
 	private final int m;
@@ -17,7 +17,29 @@ public class ModHash {
 		return new ModHash(a,b,p,m);
 	}
 	
+	@Override
 	public int Hash(long key) {
 		return (int)Math.floorMod((Math.floorMod(a * key + b, p)),m); // Return base hash value
 	}
+
+	/**
+	 * @param n - a lower bound
+	 * @return the smallest prime that is at least n
+	 */
+	public static int NextPrime(int n) {
+		if (n <= 2)
+			return 2;
+		if (n % 2 == 0)
+			n++;
+		while (!IsPrime(n))
+			n += 2;
+		return n;
+	}
+
+	private static boolean IsPrime(int n) { // Trial division by odd numbers, n is odd and larger than 2
+		for (long d = 3; d * d <= n; d += 2)
+			if (n % d == 0)
+				return false;
+		return true;
+	}
 }
@@ -0,0 +1,28 @@
+import java.util.concurrent.ThreadLocalRandom;
+
+public class MultiplyShiftHash implements IHashFunction {
+
+	private final long a, b;
+	private final int m;
+
+	public MultiplyShiftHash(long a, long b, int m) {
+		this.a = a | 1; // a must be odd
+		this.b = b;
+		this.m = m;
+	}
+
+	public static MultiplyShiftHash GetFunc(int m) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		return new MultiplyShiftHash(random.nextLong(), random.nextLong(), m);
+	}
+
+	/**
+	 * Multiply-add-shift takes the top 32 bits of a * key + b (computed mod 2^64 by the overflow), then the value is
+	 * scaled into [0, m) by a multiplication and a shift instead of a modulo, so no division is done.
+	 */
+	@Override
+	public int Hash(long key) {
+		long h = (a * key + b) >>> 32; // Between 0 to 2^32 - 1
+		return (int) ((h * m) >>> 32);
+	}
+}
@@ -0,0 +1,322 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free linear probing {@link IHashTable}, after Cliff Click's NonBlockingHashMapLong.
+ * <p>
+ * Keys live in an {@link AtomicLongArray} and are claimed with a CAS from {@link #EMPTY}. A claimed key slot is never
+ * released, a deleted item only turns its value into {@link #TOMBSTONE}. Values are the {@link HashTableElement}s
+ * themselves, so Find returns the stored element without allocating.
+ * <p>
+ * Resizing copies the table into a larger (or, when most slots hold deleted keys, same size) table while other threads
+ * keep working. Copying a slot first freezes its value by wrapping it in a {@link Prime}; any thread that meets a frozen
+ * slot helps copy it and continues in the next table. New keys are claimed in a table only after all the tables before
+ * it were copied.
+ */
+public class NonBlockingHashTable implements IHashTable {
+
+    private static final long EMPTY = Long.MIN_VALUE; // The key of a slot that was never claimed, may not be used as a key
+    private static final Object TOMBSTONE = new Object(); // The value of a claimed slot whose item was deleted
+    private static final Prime MOVED = new Prime(null); // The value of a slot that was copied to the next table
+    private static final int MIN_SIZE = 64;
+    private static final int COPY_CHUNK = 64; // The amount of slots every operation copies while a resize is running
+
+    private final AtomicReference<Table> top; // The oldest table that was not completely copied yet
+    private final LongAdder items = new LongAdder(); // The current amount of items in the table
+
+    /**
+     * @param m - the initial size of the table, rounded up to a power of 2
+     */
+    public NonBlockingHashTable(int m) {
+        int size = MIN_SIZE;
+        while (size < m)
+            size <<= 1;
+        top = new AtomicReference<>(new Table(size));
+    }
+
+    @Override
+    public HashTableElement Find(long key) {
+        CheckKey(key);
+        Table t = top.get();
+        while (true) {
+            HelpCopy(t);
+            int index = IndexOf(t, key);
+            if (index >= 0) {
+                Object value = t.values.get(index);
+                if (value instanceof HashTableElement)
+                    return (HashTableElement) value;
+                if (value instanceof Prime) { // Frozen, the item belongs to the next table
+                    CopySlot(t, index);
+                    t = t.next.get();
+                    continue;
+                }
+                return null; // Never set or deleted, while the slot is not frozen the key is in no later table
+            }
+            Table next = t.next.get();
+            if (next == null)
+                return null;
+            if (index < -1 && !Kill(t, -2 - index)) // The empty slot was claimed meanwhile, search t again
+                continue;
+            t = next;
+        }
+    }
+
+    @Override
+    public void Insert(HashTableElement hte) throws TableIsFullException, KeyAlreadyExistsException {
+        long key = hte.GetKey();
+        CheckKey(key);
+        Table t = top.get();
+        while (true) {
+            HelpCopy(t);
+            int index = IndexOf(t, key);
+            if (index >= 0) {
+                Object value = t.values.get(index);
+                if (value instanceof HashTableElement)
+                    throw new KeyAlreadyExistsException(hte);
+                if (value instanceof Prime) {
+                    CopySlot(t, index);
+                    t = t.next.get();
+                    continue;
+                }
+                if (t.values.compareAndSet(index, value, hte)) {
+                    items.increment();
+                    return;
+                }
+                continue; // The value changed meanwhile, read it again
+            }
+            Table next = t.next.get();
+            if (next != null) { // Insert into the newest table, after making sure the key can no longer enter t
+                if (index < -1 && !Kill(t, -2 - index))
+                    continue;
+                t = next;
+                continue;
+            }
+            Table head = top.get();
+            if (head != t) { // Items of the older tables may still be copied into t, finish that before claiming a new slot
+                CopyAll(head);
+                continue;
+            }
+            if (index == -1 || t.slots.get() >= t.Length() / 2) { // The probe limit or the load of t was reached
+                t = Resize(t);
+                continue;
+            }
+            if (t.keys.compareAndSet(-2 - index, EMPTY, key)) // Claim the slot, the value is set on the next iteration
+                t.slots.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void Delete(long key) throws KeyDoesntExistException {
+        CheckKey(key);
+        Table t = top.get();
+        while (true) {
+            HelpCopy(t);
+            int index = IndexOf(t, key);
+            if (index >= 0) {
+                Object value = t.values.get(index);
+                if (value instanceof Prime) {
+                    CopySlot(t, index);
+                    t = t.next.get();
+                    continue;
+                }
+                if (!(value instanceof HashTableElement))
+                    throw new KeyDoesntExistException(key);
+                if (t.values.compareAndSet(index, value, TOMBSTONE)) {
+                    items.decrement();
+                    return;
+                }
+                continue;
+            }
+            Table next = t.next.get();
+            if (next == null)
+                throw new KeyDoesntExistException(key);
+            if (index < -1 && !Kill(t, -2 - index))
+                continue;
+            t = next;
+        }
+    }
+
+    /**
+     * @return the current amount of items in the table, exact only while no other thread changes the table
+     */
+    public long Size() {
+        return items.sum();
+    }
+
+    /**
+     * @param t   - a table
+     * @param key - the key to search
+     * @return the slot of key in t, -1 if the probe limit of t was passed, or -2 - j if the probe sequence reached the
+     * empty slot j
+     */
+    private static int IndexOf(Table t, long key) {
+        int index = Home(key, t.mask);
+        int limit = 10 + (t.Length() >> 2);
+        for (int probe = 0; probe < limit; probe++) {
+            long k = t.keys.get(index);
+            if (k == key)
+                return index;
+            if (k == EMPTY)
+                return -2 - index;
+            index = (index + 1) & t.mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Freezes an empty slot, so that no key can be inserted into it anymore.
+     * Used before a key that was not found in t is searched or inserted in the next table.
+     *
+     * @return true if the slot is frozen without an item, false if it got an item meanwhile
+     */
+    private boolean Kill(Table t, int index) {
+        if (t.values.compareAndSet(index, null, MOVED)) {
+            Copied(t);
+            return true;
+        }
+        return t.values.get(index) == MOVED;
+    }
+
+    /**
+     * Copies the slot index of t into the next table: freezes the value, puts the frozen item in the next table and marks
+     * the slot as {@link #MOVED}. Any thread may copy any slot, a copy that was already done is a no-op.
+     */
+    private void CopySlot(Table t, int index) {
+        Object value = t.values.get(index);
+        while (!(value instanceof Prime)) { // Freeze the value, an item is kept inside the Prime until it is copied
+            Object frozen = value instanceof HashTableElement ? new Prime((HashTableElement) value) : MOVED;
+            if (t.values.compareAndSet(index, value, frozen)) {
+                if (frozen == MOVED) {
+                    Copied(t);
+                    return;
+                }
+                value = frozen;
+            } else
+                value = t.values.get(index);
+        }
+        if (value == MOVED)
+            return;
+        CopyInto(t.next.get(), ((Prime) value).element);
+        if (t.values.compareAndSet(index, value, MOVED))
+            Copied(t);
+    }
+
+    /**
+     * Puts element in t unless its slot already has a value. Only a value that was never set is replaced, so a late copy
+     * never revives an item that was deleted from t.
+     */
+    private static void CopyInto(Table t, HashTableElement element) {
+        long key = element.GetKey();
+        int index = Home(key, t.mask);
+        for (int probe = 0; probe < t.Length(); ) {
+            long k = t.keys.get(index);
+            if (k == EMPTY) {
+                if (!t.keys.compareAndSet(index, EMPTY, key))
+                    continue; // Claimed meanwhile, read the slot again
+                t.slots.incrementAndGet();
+                k = key;
+            }
+            if (k == key) {
+                t.values.compareAndSet(index, null, element);
+                return;
+            }
+            index = (index + 1) & t.mask;
+            probe++;
+        }
+        throw new IllegalStateException("No empty slot while copying key " + key); // The sizes chosen by Resize prevent this
+    }
+
+    /**
+     * Copies the next chunk of t, if a resize of t is running.
+     */
+    private void HelpCopy(Table t) {
+        if (t.next.get() == null || t.copyIndex.get() >= t.Length())
+            return;
+        int start = t.copyIndex.getAndAdd(COPY_CHUNK);
+        int end = Math.min(start + COPY_CHUNK, t.Length());
+        for (int i = start; i < end; i++)
+            CopySlot(t, i);
+    }
+
+    /**
+     * Copies every slot of t, which makes the next table of t the top one.
+     */
+    private void CopyAll(Table t) {
+        for (int i = 0; i < t.Length(); i++)
+            CopySlot(t, i);
+    }
+
+    /**
+     * Counts a slot of t that was marked {@link #MOVED}, and replaces t as the top table once all of its slots are.
+     */
+    private void Copied(Table t) {
+        if (t.copied.incrementAndGet() == t.Length())
+            top.compareAndSet(t, t.next.get());
+    }
+
+    /**
+     * Starts copying t, which must be the top table, into a new table: twice as large if more than a quarter of t holds
+     * items, or of the same size if most claimed slots hold deleted keys. Since new keys are claimed only up to half of
+     * a table, everything that is copied fits in half of the new table.
+     *
+     * @return the table t is copied into
+     */
+    private Table Resize(Table t) {
+        Table next = t.next.get();
+        if (next != null)
+            return next;
+        int size = t.Length();
+        if (items.sum() * 4 > size)
+            size <<= 1;
+        t.next.compareAndSet(null, new Table(size));
+        return t.next.get();
+    }
+
+    private static int Home(long key, int mask) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask; // Multiplicative hashing, the high bits are mixed best
+    }
+
+    private static void CheckKey(long key) {
+        if (key == EMPTY)
+            throw new IllegalArgumentException("Long.MIN_VALUE is reserved and can not be used as a key");
+    }
+
+    /**
+     * One generation of the table. The arrays never change size, a resize links a new generation through {@link #next}.
+     */
+    private static final class Table {
+        final AtomicLongArray keys;
+        final AtomicReferenceArray<Object> values; // null (never set), an item, TOMBSTONE or a Prime
+        final int mask; // The size of the table minus 1, the size is a power of 2
+        final AtomicInteger slots = new AtomicInteger(); // The amount of claimed key slots
+        final AtomicReference<Table> next = new AtomicReference<>(); // The table this one is copied into, null if none
+        final AtomicInteger copyIndex = new AtomicInteger(); // The first slot no thread started copying yet
+        final AtomicInteger copied = new AtomicInteger(); // The amount of slots marked MOVED
+
+        Table(int size) {
+            keys = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++)
+                keys.lazySet(i, EMPTY); // Published safely by the AtomicReference that links the table
+            values = new AtomicReferenceArray<>(size);
+            mask = size - 1;
+        }
+
+        int Length() {
+            return mask + 1;
+        }
+    }
+
+    /**
+     * A frozen value, the item it wraps is being copied to the next table.
+     */
+    private static final class Prime {
+        final HashTableElement element;
+
+        Prime(HashTableElement element) {
+            this.element = element;
+        }
+    }
+}
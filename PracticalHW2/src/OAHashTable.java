@@ -1,36 +1,125 @@
-public abstract class OAHashTable implements IHashTable {
+public abstract class OAHashTable implements IHashTable, Cloneable {
 
     private HashTableElement[] table; // The array that holds the table elements
     private int curElements; // The current amount of items in the table
+    private int deletedElements; // The current amount of deleted markers in the table
+    private final double maxLoadFactor; // The maximal (items + deleted markers) / m before the table is rehashed, 0 for a fixed size table
+    private final int migrationStep; // The amount of slots moved to a new table on every operation, 0 rehashes the whole table at once
+    private OAHashTable previous; // While an incremental rehash is running, a copy of this table with the old array and hash function, null otherwise
+    private int migrated; // The amount of slots of previous that were already moved
+    private int currentStep; // The amount of slots the running migration moves on every operation, at least migrationStep
+    private int failedCompactMarkers; // The deleted markers when Compact last failed on a fixed size table, 0 if it did not
+    private static final double MAX_DELETED_FACTOR = 0.25; // The maximal deleted markers / m before the markers are cleaned up
     private final HashTableElement deleted = new HashTableElement(-1, -1); // An item that marks an index which an item was deleted from
 
     public OAHashTable(int m) {
+        this(m, 0);
+    }
+
+    /**
+     * @param m             - the initial size of the table
+     * @param maxLoadFactor - a number in (0, 1], the table grows and rehashes instead of throwing {@link TableIsFullException}
+     *                      once this load is reached. 0 keeps the table at a fixed size m.
+     */
+    public OAHashTable(int m, double maxLoadFactor) {
+        this(m, maxLoadFactor, 0);
+    }
+
+    /**
+     * @param m             - the initial size of the table
+     * @param maxLoadFactor - see {@link #OAHashTable(int, double)}
+     * @param migrationStep - if positive, a rehash keeps the old array and moves this many of its slots to the new one on
+     *                      every Insert, Delete and Find, so no single operation pays for the whole rehash.
+     *                      A migration moves more slots per operation if needed to end before the new table reaches
+     *                      maxLoadFactor: at least ceil(old m / (maxLoadFactor * new m - items)), so the next rehash
+     *                      never has to finish it. 0 rehashes the whole table inside the Insert that passed the load factor.
+     */
+    public OAHashTable(int m, double maxLoadFactor, int migrationStep) {
+        if (maxLoadFactor < 0 || maxLoadFactor > 1)
+            throw new IllegalArgumentException("maxLoadFactor must be in [0, 1]: " + maxLoadFactor);
+        if (migrationStep < 0)
+            throw new IllegalArgumentException("migrationStep must not be negative: " + migrationStep);
         // Init empty table
         this.table = new HashTableElement[m];
+        this.maxLoadFactor = maxLoadFactor;
+        this.migrationStep = migrationStep;
         curElements = 0;
+        deletedElements = 0;
     }
 
 
     @Override
     public HashTableElement Find(long key) {
+        if (previous != null)
+            Migrate();
+        return FindReadOnly(key);
+    }
+
+    /**
+     * Same as {@link #Find(long)}, but does not move items of a running incremental rehash, so it never writes to the
+     * table and may run alongside other readers.
+     *
+     * @param key - the key to find in the table
+     * @return the table entry with the required key if exists, or null otherwise.
+     */
+    public HashTableElement FindReadOnly(long key) {
+        HashTableElement element = FindInTable(key);
+        OAHashTable old = previous;
+        if (element == null && old != null) // Until the migration is done, an item is in exactly one of the two arrays
+            element = old.FindInTable(key);
+        return element;
+    }
+
+    /**
+     * @param key - the key to find in the array of this table only
+     * @return the table entry with the required key if exists, or null otherwise.
+     */
+    private HashTableElement FindInTable(long key) {
         // Attempt m (table size) probes of hash function to find the element with the corresponding key
+        int first = Hash(key, 0); // The probe positions after the first are derived from it, see NextProbe
+        int step = ProbeStep(key);
+        int hashedIndex = first;
         for (int i = 0; i < table.length - 1; i++) {
-            HashTableElement element = table[Hash(key, i)];
+            if (i > 0)
+                hashedIndex = NextProbe(first, hashedIndex, step, i);
+            HashTableElement element = table[hashedIndex];
             if (element == null)
                 break;
             if (element != deleted && element.GetKey() == key) // ignores deleted node by comparing memory addresses
                 return element;
+            if (DisplaceOnInsert() && element != deleted && Distance(element, hashedIndex) < i) // key would have displaced this item
+                break;
         }
         return null;
     }
 
     @Override
     public void Insert(HashTableElement hte) throws TableIsFullException, KeyAlreadyExistsException {
-        if (curElements == table.length) // If table is full
+        if (maxLoadFactor == 0 && curElements == table.length) // If table is full
             throw new TableIsFullException(hte);
+        if (previous != null)
+            Migrate();
+        if (maxLoadFactor > 0 && curElements + deletedElements + 1 > maxLoadFactor * table.length) { // If inserting would pass the load factor
+            if (FindReadOnly(hte.GetKey()) != null) // Do not grow the table for an Insert that adds nothing
+                throw new KeyAlreadyExistsException(hte);
+            Resize(false);
+        }
+        if (previous != null && previous.FindInTable(hte.GetKey()) != null) // The key may not have been moved yet
+            throw new KeyAlreadyExistsException(hte);
+        if (DisplaceOnInsert()) {
+            if (FindInTable(hte.GetKey()) != null)
+                throw new KeyAlreadyExistsException(hte);
+            Place(hte); // There is an empty slot, the table is either below its load factor or not full
+            curElements++;
+            return;
+        }
         int indexToInsert = -1;
+        int first = Hash(hte.GetKey(), 0);
+        int step = ProbeStep(hte.GetKey());
+        int hashedIndex = first;
         for (int i = 0; i < table.length; i++) { // Attempt m (table size) probes to insert the item
-            int hashedIndex = Hash(hte.GetKey(), i);
+            if (i > 0)
+                hashedIndex = NextProbe(first, hashedIndex, step, i);
             HashTableElement element = table[hashedIndex];
             if (element == null) { // If found an empty slot, save index and end probes
                 if (indexToInsert == -1)
@@ -44,31 +133,346 @@ public abstract class OAHashTable implements IHashTable {
                 break;
             }
         }
-        if (indexToInsert == -1) // If could not find an empty or deleted slot to insert the new element
-            throw new TableIsFullException(hte);
+        if (indexToInsert == -1) { // If could not find an empty or deleted slot to insert the new element
+            if (maxLoadFactor == 0)
+                throw new TableIsFullException(hte);
+            // The probe sequence is exhausted before the load factor was reached, grow and try again
+            Resize(true);
+            Insert(hte);
+            return;
+        }
         if (indexToInsert == -2) // If the key already exists in the table
             throw new KeyAlreadyExistsException(hte);
         // Update the current amount of items and insert the new element to the table
+        if (table[indexToInsert] == deleted)
+            deletedElements--;
         curElements++;
         table[indexToInsert] = hte;
     }
 
     @Override
     public void Delete(long key) throws KeyDoesntExistException {
+        if (previous != null)
+            Migrate();
+        if (RemoveFromTable(key)) {
+            // Too many deleted markers lengthen every probe sequence. After a failed Compact, wait until they doubled
+            if (deletedElements > MAX_DELETED_FACTOR * table.length && deletedElements >= 2 * failedCompactMarkers)
+                Compact();
+            return;
+        }
+        if (previous != null && previous.RemoveFromTable(key)) { // The key was not moved yet
+            curElements--;
+            return;
+        }
+        throw new KeyDoesntExistException(key);
+    }
+
+    /**
+     * @param key - the key to delete from the array of this table only
+     * @return true if the key was found and deleted, false otherwise
+     */
+    private boolean RemoveFromTable(long key) {
+        int first = Hash(key, 0);
+        int step = ProbeStep(key);
+        int hashedIndex = first;
         for (int i = 0; i < table.length; i++) { // Attempt m (table size) probes to find and delete the element
-            int hashedIndex = Hash(key, i);
+            if (i > 0)
+                hashedIndex = NextProbe(first, hashedIndex, step, i);
             HashTableElement element = table[hashedIndex];
             if (element == null) // If found a null slot, the key searched will not be in any of the future probes, thus it is not in the table
-                throw new KeyDoesntExistException(key);
+                return false;
+            if (DisplaceOnInsert() && element != deleted && Distance(element, hashedIndex) < i) // key would have displaced this item
+                return false;
             else if (element.GetKey() == key && element != deleted) { // If found key, and it is not the deleted marker
+                curElements--;
+                if (ShiftOnDelete() && deletedElements == 0) { // Markers left by a migration would break the shift, see ShiftBack
+                    ShiftBack(hashedIndex);
+                    return true;
+                }
                 // Put the deleted marker in the index and update the current amount of items in the table, end method.
                 table[hashedIndex] = deleted;
-                curElements--;
+                deletedElements++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deletes the item at index without leaving a deleted marker, by moving back every later item of the cluster that
+     * may take the empty slot: an item can move to the hole if the hole is between the item's home slot Hash(x, 0) and
+     * its current slot. Only valid for linear probing, where Hash(x, i) = (Hash(x, 0) + i) % m, and only while the
+     * table holds no deleted markers (a marker would end the scan early and hide items behind it).
+     *
+     * @param index - the slot of the item to delete
+     */
+    private void ShiftBack(int index) {
+        int m = table.length;
+        int hole = index;
+        int j = index;
+        for (int step = 1; step < m; step++) {
+            j = j + 1 == m ? 0 : j + 1;
+            HashTableElement element = table[j];
+            if (element == null) // The end of the cluster
                 break;
+            int home = Hash(element.GetKey(), 0);
+            // The hole is in [home, j) cyclically, so moving the item there keeps it reachable from its home slot
+            boolean canMove = hole < j ? (home <= hole || home > j) : (home <= hole && home > j);
+            if (canMove) {
+                table[hole] = element;
+                hole = j;
+            }
+        }
+        table[hole] = null;
+    }
+
+    /**
+     * Removes all the deleted markers by placing the items again in a new array of the same size, with the same
+     * hash function. If an item does not fit (possible only for probing sequences that do not cover the whole table)
+     * a growable table is rehashed into a larger one instead, and a fixed size table is left as it was and remembers
+     * the amount of markers, so {@link #Delete(long)} does not retry until that amount doubled.
+     */
+    private void Compact() {
+        HashTableElement[] oldTable = table;
+        int oldDeleted = deletedElements;
+        table = new HashTableElement[oldTable.length];
+        deletedElements = 0;
+        for (HashTableElement element : oldTable) {
+            if (element == null || element == deleted)
+                continue;
+            if (!Place(element)) {
+                table = oldTable;
+                deletedElements = oldDeleted;
+                if (maxLoadFactor > 0)
+                    Resize(true);
+                else
+                    failedCompactMarkers = oldDeleted;
+                return;
+            }
+        }
+        failedCompactMarkers = 0;
+    }
+
+    /**
+     * @return true if deleted items are removed by {@link #ShiftBack(int)} instead of a deleted marker.
+     * Only linear probing may return true.
+     */
+    protected boolean ShiftOnDelete() {
+        return false;
+    }
+
+    /**
+     * @return true if items are placed with Robin Hood displacement, see {@link #PlaceDisplacing(HashTableElement)},
+     * which also lets lookups stop once they pass an item that is closer to its home slot than the key would be.
+     * Only linear probing may return true.
+     */
+    protected boolean DisplaceOnInsert() {
+        return false;
+    }
+
+    /**
+     * Rehashes all the items of the table with a fresh hash function, dropping all the deleted markers.
+     * The table grows to {@link #NextSize(int)} if grow is set or if the items alone take at least half of the
+     * allowed load, otherwise the size is kept and the rehash only compacts the deleted markers.
+     * With a positive {@link #migrationStep} the items are moved later, a few slots at a time, by {@link #Migrate()}.
+     *
+     * @param grow - force the table to grow
+     */
+    private void Resize(boolean grow) {
+        while (previous != null) // Only when a probe sequence was exhausted mid-migration, the load factor alone is never reached before it ends
+            Migrate();
+        int m = table.length;
+        if (grow || curElements + 1 > maxLoadFactor * m / 2)
+            m = NextSize(m);
+        if (migrationStep > 0) {
+            StartMigration(m);
+            return;
+        }
+        HashTableElement[] oldTable = table;
+        while (!Rehash(oldTable, m)) // A probe sequence of the new table was exhausted, try a larger one
+            m = NextSize(m);
+    }
+
+    /**
+     * Keeps the current array and hash function in {@link #previous} and makes this table an empty table of size m.
+     * The items are then moved by {@link #Migrate()}, {@link #currentStep} slots per operation. Every operation adds at
+     * most one item or deleted marker, so the step is chosen to move all the old slots within the operations left
+     * until the new table reaches its load factor.
+     *
+     * @param m - the size of the new table
+     */
+    private void StartMigration(int m) {
+        try {
+            previous = (OAHashTable) clone(); // A shallow copy, shares the array, the hash function and the deleted marker
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+        ResetHash(m);
+        table = new HashTableElement[m];
+        deletedElements = 0;
+        migrated = 0;
+        int headroom = Math.max(1, (int) (maxLoadFactor * m) - curElements); // Inserts left before the next Resize
+        int oldLength = previous.table.length;
+        currentStep = Math.max(migrationStep, (oldLength + headroom - 1) / headroom);
+    }
+
+    /**
+     * Moves the next {@link #currentStep} slots of {@link #previous} into this table, leaving a deleted marker behind so the
+     * probe sequences of the items left in previous stay intact. Ends the migration once every slot was moved.
+     */
+    private void Migrate() {
+        HashTableElement[] oldTable = previous.table;
+        int end = Math.min(migrated + currentStep, oldTable.length);
+        for (; migrated < end; migrated++) {
+            HashTableElement element = oldTable[migrated];
+            if (element == null || element == deleted)
+                continue;
+            if (!Place(element)) { // A probe sequence of the new table was exhausted, fall back to a full rehash
+                RehashAll(true);
+                return;
+            }
+            oldTable[migrated] = deleted;
+            previous.deletedElements++;
+        }
+        if (migrated == oldTable.length)
+            previous = null;
+    }
+
+    /**
+     * Ends a running migration by rehashing the items of both arrays at once.
+     *
+     * @param grow - rehash into a larger table instead of the current size
+     */
+    private void RehashAll(boolean grow) {
+        HashTableElement[] items = new HashTableElement[table.length + previous.table.length];
+        System.arraycopy(table, 0, items, 0, table.length);
+        System.arraycopy(previous.table, 0, items, table.length, previous.table.length);
+        previous = null;
+        int m = grow ? NextSize(table.length) : table.length;
+        while (!Rehash(items, m))
+            m = NextSize(m);
+    }
+
+    /**
+     * @param element - an item whose key is not in this table
+     * @return true if element was placed in the first free slot of its probe sequence, false if the sequence was exhausted
+     */
+    private boolean Place(HashTableElement element) {
+        if (DisplaceOnInsert())
+            return PlaceDisplacing(element);
+        int first = Hash(element.GetKey(), 0);
+        int step = ProbeStep(element.GetKey());
+        int hashedIndex = first;
+        for (int i = 0; i < table.length; i++) {
+            if (i > 0)
+                hashedIndex = NextProbe(first, hashedIndex, step, i);
+            if (table[hashedIndex] == null || table[hashedIndex] == deleted) {
+                if (table[hashedIndex] == deleted)
+                    deletedElements--;
+                table[hashedIndex] = element;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Robin Hood placement: walks the linear probe sequence of element, and whenever a resident is closer to its home
+     * slot than the carried item is to its own, the two swap and the resident is carried on.
+     * The table must have an empty slot, otherwise a carried item is lost.
+     *
+     * @param element - an item whose key is not in this table
+     * @return true if element was placed, false if the table had no empty slot
+     */
+    private boolean PlaceDisplacing(HashTableElement element) {
+        int m = table.length;
+        int index = Hash(element.GetKey(), 0);
+        int distance = 0; // The distance of the carried item from its home slot
+        for (int step = 0; step < m; step++) {
+            HashTableElement resident = table[index];
+            if (resident == null || resident == deleted) {
+                if (resident == deleted)
+                    deletedElements--;
+                table[index] = element;
+                return true;
             }
+            int residentDistance = Distance(resident, index);
+            if (residentDistance < distance) { // The resident is closer to its home, it gives up the slot
+                table[index] = element;
+                element = resident;
+                distance = residentDistance;
+            }
+            index = index + 1 == m ? 0 : index + 1;
+            distance++;
         }
+        return false;
+    }
+
+    /**
+     * @param element - an item of the table
+     * @param index   - the slot that holds element
+     * @return the amount of linear probes between the home slot of element, Hash(x, 0), and index
+     */
+    private int Distance(HashTableElement element, int index) {
+        int home = Hash(element.GetKey(), 0);
+        return index >= home ? index - home : index - home + table.length;
     }
 
+    /**
+     * @param oldTable - the table to move the items from
+     * @param m        - the size of the new table
+     * @return true if all items of oldTable were placed in a new table of size m, false otherwise
+     */
+    private boolean Rehash(HashTableElement[] oldTable, int m) {
+        ResetHash(m);
+        table = new HashTableElement[m];
+        deletedElements = 0;
+        for (HashTableElement element : oldTable) {
+            if (element == null || element == deleted)
+                continue;
+            if (!Place(element)) // The keys are distinct, so the first empty slot is the one
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param x - the key to hash
+     * @return a value that stays the same along the probing sequence of x and is passed to {@link #NextProbe(int, int, int, int)},
+     * computed once per operation (e.g. the step of double hashing). 0 by default.
+     */
+    protected int ProbeStep(long x) {
+        return 0;
+    }
+
+    /**
+     * Computes a probe position from the previous one, so that the hash functions are evaluated once per operation
+     * instead of once per probe. Must return the same index as Hash(x, i).
+     *
+     * @param first    - Hash(x, 0)
+     * @param previous - Hash(x, i - 1)
+     * @param step     - ProbeStep(x)
+     * @param i        - the index in the probing sequence, at least 1
+     * @return the index into the hash table to place the key x, Hash(x, i)
+     */
+    protected abstract int NextProbe(int first, int previous, int step, int i);
+
+    /**
+     * @param m - the current size of the table
+     * @return the size of the table after it grows, by default the first prime after 2m
+     */
+    protected int NextSize(int m) {
+        return ModHash.NextPrime(2 * m + 1);
+    }
+
+    /**
+     * Replaces the hash function of the table with a fresh one for a table of size m.
+     * Called before the items are rehashed into a new table of that size.
+     *
+     * @param m - the new size of the table
+     */
+    protected abstract void ResetHash(int m);
+
     /**
      * @param x - the key to hash
      * @param i - the index in the probing sequence
@@ -0,0 +1,34 @@
+public class PrimitiveAQPHashTable extends PrimitiveOAHashTable {
+
+    private ModHash hash;
+    private int m;
+
+    public PrimitiveAQPHashTable(int m, long p) {
+        super(m);
+        hash = ModHash.GetFunc(m, p);
+        this.m = m;
+    }
+
+    @Override
+    public int Hash(long x, int i) {
+        long square = (long) i * i; // i*i overflows an int once the table grows past 46340
+        return (int) (i % 2 == 0 ? ((hash.Hash(x) + square) % m) : Math.floorMod(hash.Hash(x) - square, (long) m));
+    }
+
+    @Override
+    protected int NextProbe(int first, int previous, int step, int i) {
+        // Recover (i-1)^2 mod m from the previous position, which was first + (i-1)^2 for an even i-1 and first - (i-1)^2 for an odd one
+        int square = (i - 1) % 2 == 0 ? previous - first : first - previous;
+        if (square < 0)
+            square += m;
+        long next = square + 2L * i - 1; // i^2 = (i-1)^2 + 2i - 1
+        while (next >= m)
+            next -= m;
+        if (i % 2 == 0)
+            next = first + next >= m ? first + next - m : first + next;
+        else
+            next = first - next < 0 ? first - next + m : first - next;
+        return (int) next;
+    }
+
+}
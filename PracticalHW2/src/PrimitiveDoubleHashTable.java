@@ -0,0 +1,32 @@
+public class PrimitiveDoubleHashTable extends PrimitiveOAHashTable {
+
+    private ModHash hash1; // Returns values between 0 to m-1
+    private ModHash hash2; // Returns values between 0 to m-2
+    private int m;
+
+    public PrimitiveDoubleHashTable(int m, long p) {
+        super(m);
+        hash1 = ModHash.GetFunc(m, p);
+        hash2 = ModHash.GetFunc(m - 1, p);
+        this.m = m;
+    }
+
+    @Override
+    public int Hash(long x, int i) {
+        // h2 is shifted to return values between 1 to m-1, same as in DoubleHashTable
+        // The step is multiplied as a long, it overflows an int once the table grows past 46340
+        return (int) Math.floorMod(hash1.Hash(x) + (long) i * (hash2.Hash(x) + 1), (long) m);
+    }
+
+    @Override
+    protected int ProbeStep(long x) {
+        return hash2.Hash(x) + 1;
+    }
+
+    @Override
+    protected int NextProbe(int first, int previous, int step, int i) {
+        int next = previous + step; // Both are below m, so the sum does not overflow for m < 2^30
+        return next >= m ? next - m : next;
+    }
+
+}
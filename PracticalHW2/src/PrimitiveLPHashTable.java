@@ -0,0 +1,22 @@
+public class PrimitiveLPHashTable extends PrimitiveOAHashTable {
+
+    private ModHash hash;
+    private int m;
+
+    public PrimitiveLPHashTable(int m, long p) {
+        super(m);
+        hash = ModHash.GetFunc(m, p);
+        this.m = m;
+    }
+
+    @Override
+    public int Hash(long x, int i) {
+        return (int) ((hash.Hash(x) + (long) i) % m);
+    }
+
+    @Override
+    protected int NextProbe(int first, int previous, int step, int i) {
+        return previous + 1 == m ? 0 : previous + 1;
+    }
+
+}
@@ -0,0 +1,162 @@
+public abstract class PrimitiveOAHashTable implements IHashTable {
+
+    private long[] keys; // keys[j] is the key stored in slot j
+    private long[] values; // values[j] is the value paired with keys[j]
+    private long[] used; // Bitmap of the slots that hold an element or a deleted marker (a clear bit marks an empty slot)
+    private long[] live; // Bitmap of the slots that currently hold an element
+    private int curElements; // The current amount of items in the table
+
+    public PrimitiveOAHashTable(int m) {
+        // Init empty table, every bitmap word covers 64 slots
+        keys = new long[m];
+        values = new long[m];
+        used = new long[(m + 63) >>> 6];
+        live = new long[(m + 63) >>> 6];
+        curElements = 0;
+    }
+
+    @Override
+    public HashTableElement Find(long key) {
+        int index = IndexOf(key);
+        if (index == -1)
+            return null;
+        return new HashTableElement(keys[index], values[index]); // The only allocation, made for callers of the IHashTable API
+    }
+
+    /**
+     * @param key - the key to find in the table
+     * @return true if an entry with the required key exists in the table, false otherwise.
+     */
+    public boolean Contains(long key) {
+        return IndexOf(key) != -1;
+    }
+
+    /**
+     * @param key          - the key to find in the table
+     * @param defaultValue - the value to return if the key is not in the table
+     * @return the value paired with key if it exists in the table, or defaultValue otherwise.
+     */
+    public long Get(long key, long defaultValue) {
+        int index = IndexOf(key);
+        return index == -1 ? defaultValue : values[index];
+    }
+
+    @Override
+    public void Insert(HashTableElement hte) throws TableIsFullException, KeyAlreadyExistsException {
+        Insert(hte.GetKey(), hte.GetValue());
+    }
+
+    /**
+     * Inserts the pair (key, value) without wrapping it in a {@link HashTableElement}.
+     * An element is allocated only when an exception has to be thrown.
+     */
+    public void Insert(long key, long value) throws TableIsFullException, KeyAlreadyExistsException {
+        if (curElements == keys.length) // If table is full
+            throw new TableIsFullException(new HashTableElement(key, value));
+        int indexToInsert = -1;
+        int first = Hash(key, 0); // The probe positions after the first are derived from it, see NextProbe
+        int step = ProbeStep(key);
+        int hashedIndex = first;
+        for (int i = 0; i < keys.length; i++) { // Attempt m (table size) probes to insert the item
+            if (i > 0)
+                hashedIndex = NextProbe(first, hashedIndex, step, i);
+            if (!IsSet(used, hashedIndex)) { // If found an empty slot, save index and end probes
+                if (indexToInsert == -1)
+                    indexToInsert = hashedIndex;
+                break;
+            }
+            if (!IsSet(live, hashedIndex)) { // A deleted slot, save the first one and keep probing to find if the key already exists
+                if (indexToInsert == -1)
+                    indexToInsert = hashedIndex;
+            } else if (keys[hashedIndex] == key) // If found key, throw key exists exception
+                throw new KeyAlreadyExistsException(new HashTableElement(key, value));
+        }
+        if (indexToInsert == -1) // If could not find an empty or deleted slot to insert the new element
+            throw new TableIsFullException(new HashTableElement(key, value));
+        // Update the current amount of items and insert the new element to the table
+        curElements++;
+        keys[indexToInsert] = key;
+        values[indexToInsert] = value;
+        Set(used, indexToInsert);
+        Set(live, indexToInsert);
+    }
+
+    @Override
+    public void Delete(long key) throws KeyDoesntExistException {
+        int index = IndexOf(key);
+        if (index == -1)
+            throw new KeyDoesntExistException(key);
+        // Leave the used bit on so the slot acts as a deleted marker for later probes
+        Clear(live, index);
+        curElements--;
+    }
+
+    /**
+     * @return the amount of items in the table
+     */
+    public int Size() {
+        return curElements;
+    }
+
+    /**
+     * @param key - the key to search
+     * @return the slot that holds key, or -1 if the key is not in the table
+     */
+    private int IndexOf(long key) {
+        // Attempt m (table size) probes of hash function to find the slot with the corresponding key
+        int first = Hash(key, 0);
+        int step = ProbeStep(key);
+        int hashedIndex = first;
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0)
+                hashedIndex = NextProbe(first, hashedIndex, step, i);
+            if (!IsSet(used, hashedIndex)) // An empty slot ends the probe sequence
+                return -1;
+            if (keys[hashedIndex] == key && IsSet(live, hashedIndex)) // ignores deleted slots
+                return hashedIndex;
+        }
+        return -1;
+    }
+
+    // Bitmap helpers, slot j is bit (j % 64) of word (j / 64). Shifting a long by j only uses the low 6 bits of j.
+    private static boolean IsSet(long[] bits, int j) {
+        return (bits[j >>> 6] & (1L << j)) != 0;
+    }
+
+    private static void Set(long[] bits, int j) {
+        bits[j >>> 6] |= 1L << j;
+    }
+
+    private static void Clear(long[] bits, int j) {
+        bits[j >>> 6] &= ~(1L << j);
+    }
+
+    /**
+     * @param x - the key to hash
+     * @param i - the index in the probing sequence
+     *
+     * @return the index into the hash table to place the key x
+     */
+    public abstract int Hash(long x, int i);
+
+    /**
+     * @param x - the key to hash
+     * @return a value that stays the same along the probing sequence of x and is passed to {@link #NextProbe(int, int, int, int)},
+     * computed once per operation (e.g. the step of double hashing). 0 by default.
+     */
+    protected int ProbeStep(long x) {
+        return 0;
+    }
+
+    /**
+     * Computes a probe position from the previous one, so that the hash functions are evaluated once per operation
+     * instead of once per probe. Must return the same index as Hash(x, i).
+     *
+     * @param first    - Hash(x, 0)
+     * @param previous - Hash(x, i - 1)
+     * @param step     - ProbeStep(x)
+     * @param i        - the index in the probing sequence, at least 1
+     * @return the index into the hash table to place the key x, Hash(x, i)
+     */
+    protected abstract int NextProbe(int first, int previous, int step, int i);
+}
@@ -0,0 +1,26 @@
+public class PrimitiveQPHashTable extends PrimitiveOAHashTable {
+
+    private ModHash hash;
+    private int m;
+
+    public PrimitiveQPHashTable(int m, long p) {
+        super(m);
+        hash = ModHash.GetFunc(m, p);
+        this.m = m;
+    }
+
+    @Override
+    public int Hash(long x, int i) {
+        return (int) ((hash.Hash(x) + (long) i * i) % m); // i*i is taken as a long, it overflows an int once the table grows past 46340
+    }
+
+    @Override
+    protected int NextProbe(int first, int previous, int step, int i) {
+        // i^2 = (i-1)^2 + 2i - 1, and 2i - 1 < 2m, so at most two subtractions bring the sum back below m
+        long next = previous + 2L * i - 1;
+        while (next >= m)
+            next -= m;
+        return (int) next;
+    }
+
+}
@@ -1,17 +1,46 @@
 public class QPHashTable extends OAHashTable {
 
-	private ModHash hash;
+	private IHashFunction hash;
 	private int m;
+	private final IHashFunction.Family family;
 
 	public QPHashTable(int m, long p) {
-		super(m);
-		hash = ModHash.GetFunc(m, p);
+		this(m, p, 0);
+	}
+
+	public QPHashTable(int m, long p, double maxLoadFactor) {
+		this(m, p, maxLoadFactor, 0);
+	}
+
+	public QPHashTable(int m, long p, double maxLoadFactor, int migrationStep) {
+		this(m, k -> ModHash.GetFunc(k, p), maxLoadFactor, migrationStep);
+	}
+
+	public QPHashTable(int m, IHashFunction.Family family, double maxLoadFactor, int migrationStep) {
+		super(m, maxLoadFactor, migrationStep);
+		hash = family.GetFunc(m);
 		this.m = m;
+		this.family = family;
 	}
 
 	
 	@Override
 	public int Hash(long x, int i) {
-		return (hash.Hash(x) + i*i) % m;
+		return (int) ((hash.Hash(x) + (long) i * i) % m); // i*i is taken as a long, it overflows an int once the table grows past 46340
+	}
+
+	@Override
+	protected int NextProbe(int first, int previous, int step, int i) {
+		// i^2 = (i-1)^2 + 2i - 1, and 2i - 1 < 2m, so at most two subtractions bring the sum back below m
+		long next = previous + 2L * i - 1;
+		while (next >= m)
+			next -= m;
+		return (int) next;
+	}
+
+	@Override
+	protected void ResetHash(int m) {
+		hash = family.GetFunc(m);
+		this.m = m;
 	}
 }
@@ -0,0 +1,24 @@
+public class RobinHoodHashTable extends LPHashTable {
+
+    public RobinHoodHashTable(int m, long p) {
+        super(m, p);
+    }
+
+    public RobinHoodHashTable(int m, long p, double maxLoadFactor) {
+        super(m, p, maxLoadFactor);
+    }
+
+    public RobinHoodHashTable(int m, long p, double maxLoadFactor, int migrationStep) {
+        super(m, p, maxLoadFactor, migrationStep);
+    }
+
+    public RobinHoodHashTable(int m, IHashFunction.Family family, double maxLoadFactor, int migrationStep) {
+        super(m, family, maxLoadFactor, migrationStep);
+    }
+
+    @Override
+    protected boolean DisplaceOnInsert() {
+        return true; // Items far from their home slot take the place of items closer to theirs
+    }
+
+}
@@ -0,0 +1,92 @@
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A thread safe {@link IHashTable} that splits the keys between independent {@link OAHashTable} segments, each guarded
+ * by its own lock. Insert and Delete lock only the segment of the key. Find first reads the segment without locking and
+ * validates that no writer ran meanwhile, and takes the segment's read lock only if one did.
+ */
+public class StripedHashTable implements IHashTable {
+
+    private final OAHashTable[] segments;
+    private final StampedLock[] locks; // locks[s] guards segments[s]
+    private final int shift; // 64 - log2(amount of segments), the top bits of the spread key select the segment
+
+    /**
+     * A factory of the segments, for example {@code () -> new LPHashTable(m, p, 0.75)}
+     */
+    public interface SegmentFactory {
+        OAHashTable Create();
+    }
+
+    /**
+     * @param segments - the amount of segments, rounded up to a power of 2
+     * @param factory  - creates each of the segments
+     */
+    public StripedHashTable(int segments, SegmentFactory factory) {
+        if (segments < 1)
+            throw new IllegalArgumentException("segments must be positive: " + segments);
+        int bits = 32 - Integer.numberOfLeadingZeros(segments - 1); // log2 of segments rounded up
+        this.segments = new OAHashTable[1 << bits];
+        this.locks = new StampedLock[1 << bits];
+        this.shift = 64 - bits;
+        for (int s = 0; s < this.segments.length; s++) {
+            this.segments[s] = factory.Create();
+            this.locks[s] = new StampedLock();
+        }
+    }
+
+    @Override
+    public HashTableElement Find(long key) {
+        int s = Segment(key);
+        StampedLock lock = locks[s];
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                HashTableElement element = segments[s].FindReadOnly(key);
+                if (lock.validate(stamp))
+                    return element;
+            } catch (RuntimeException e) {
+                // A writer changed the segment in the middle of the read (e.g. replaced its array), read again under the lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return segments[s].FindReadOnly(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void Insert(HashTableElement hte) throws TableIsFullException, KeyAlreadyExistsException {
+        int s = Segment(hte.GetKey());
+        long stamp = locks[s].writeLock();
+        try {
+            segments[s].Insert(hte);
+        } finally {
+            locks[s].unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void Delete(long key) throws KeyDoesntExistException {
+        int s = Segment(key);
+        long stamp = locks[s].writeLock();
+        try {
+            segments[s].Delete(key);
+        } finally {
+            locks[s].unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @param key - a key
+     * @return the segment that holds key, taken from the top bits of a multiplicative hash of the key so that it does
+     * not correlate with the {@link ModHash} of the segment
+     */
+    private int Segment(long key) {
+        if (shift == 64) // A single segment, a shift by 64 is a shift by 0 in java
+            return 0;
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+}